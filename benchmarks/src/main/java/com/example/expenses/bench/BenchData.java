@@ -0,0 +1,77 @@
+package com.example.expenses.bench;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schema and synthetic rows for benchmarks running on embedded H2 in MySQL
+ * mode. The tables mirror src/main/resources/schema.sql.
+ */
+public final class BenchData {
+    static final String[] CATEGORIES = {"grocery", "electronics", "utilities", "treat", "transit", "health", "entertainment", "shopping", "education", "rent", "travel"};
+
+    private BenchData() {
+    }
+
+    static void createSchema(JdbcTemplate jdbc) {
+        // H2 has no DATE_FORMAT; the repositories only use it for '%Y-%m' buckets
+        jdbc.execute("CREATE ALIAS IF NOT EXISTS DATE_FORMAT FOR \"" + BenchData.class.getName() + ".dateFormat\"");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS categories (id BIGINT PRIMARY KEY AUTO_INCREMENT, name VARCHAR(100) NOT NULL UNIQUE, type VARCHAR(20) DEFAULT 'expense', color VARCHAR(20))");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS accounts (id BIGINT PRIMARY KEY AUTO_INCREMENT, user_id BIGINT NOT NULL, name VARCHAR(100) NOT NULL, type VARCHAR(20) NOT NULL, currency_code CHAR(3) NOT NULL DEFAULT 'USD')");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS expenses (id BIGINT PRIMARY KEY AUTO_INCREMENT, title VARCHAR(255) NOT NULL, amount DECIMAL(12,2) NOT NULL, "
+                + "category VARCHAR(100) NOT NULL, expense_date DATE NOT NULL, notes TEXT, user_id BIGINT DEFAULT 1, account_id BIGINT DEFAULT 1, category_id BIGINT)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS ix_expenses_user_date ON expenses (user_id, expense_date)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS ix_expenses_account_date ON expenses (account_id, expense_date)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS ix_expenses_category_date ON expenses (category_id, expense_date)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS expense_rollups (user_id BIGINT NOT NULL, period CHAR(7) NOT NULL, category_id BIGINT NOT NULL DEFAULT 0, "
+                + "account_id BIGINT NOT NULL DEFAULT 0, total DECIMAL(14,2) NOT NULL DEFAULT 0, cnt BIGINT NOT NULL DEFAULT 0, PRIMARY KEY (user_id, period, category_id, account_id))");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS budgets (user_id BIGINT NOT NULL, category_id BIGINT NOT NULL, monthly_limit DECIMAL(12,2) NOT NULL, PRIMARY KEY (user_id, category_id))");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS spending_stats (user_id BIGINT NOT NULL, category_id BIGINT NOT NULL DEFAULT 0, cnt BIGINT NOT NULL, "
+                + "mean DOUBLE NOT NULL, m2 DOUBLE NOT NULL, PRIMARY KEY (user_id, category_id))");
+        for (String c : CATEGORIES) {
+            jdbc.update("MERGE INTO categories (name) KEY (name) VALUES (?)", c);
+        }
+    }
+
+    /** Inserts rows spread over the given number of users and the last three years. */
+    static void insertExpenses(JdbcTemplate jdbc, int rows, int users) {
+        LocalDate start = LocalDate.now().minusYears(3);
+        List<Object[]> batch = new ArrayList<>(1000);
+        for (int i = 0; i < rows; i++) {
+            String category = CATEGORIES[i % CATEGORIES.length];
+            batch.add(new Object[]{
+                    "Expense " + i, BigDecimal.valueOf(100 + (i * 37L) % 50_000, 2), category,
+                    Date.valueOf(start.plusDays(i % 1095)), (i % 3 == 0) ? null : "note " + i,
+                    (long) (i % users) + 1, (long) (i % 3) + 1, (long) (i % CATEGORIES.length) + 1});
+            if (batch.size() == 1000) {
+                flush(jdbc, batch);
+            }
+        }
+        flush(jdbc, batch);
+    }
+
+    /** Same buckets as ExpenseRollupRepository.rebuild(null), without its MySQL-only UPDATE ... JOIN. */
+    static void rebuildRollups(JdbcTemplate jdbc) {
+        jdbc.update("DELETE FROM expense_rollups");
+        jdbc.update("INSERT INTO expense_rollups (user_id, period, category_id, account_id, total, cnt) "
+                + "SELECT COALESCE(user_id, 0), DATE_FORMAT(expense_date, '%Y-%m'), COALESCE(category_id, 0), COALESCE(account_id, 0), SUM(amount), COUNT(*) "
+                + "FROM expenses GROUP BY COALESCE(user_id, 0), DATE_FORMAT(expense_date, '%Y-%m'), COALESCE(category_id, 0), COALESCE(account_id, 0)");
+    }
+
+    public static String dateFormat(Date date, String format) {
+        if (date == null) return null;
+        if (!"%Y-%m".equals(format)) throw new IllegalArgumentException("Unsupported format " + format);
+        return date.toLocalDate().toString().substring(0, 7);
+    }
+
+    private static void flush(JdbcTemplate jdbc, List<Object[]> batch) {
+        if (batch.isEmpty()) return;
+        jdbc.batchUpdate("INSERT INTO expenses (title, amount, category, expense_date, notes, user_id, account_id, category_id) VALUES (?,?,?,?,?,?,?,?)", batch);
+        batch.clear();
+    }
+}
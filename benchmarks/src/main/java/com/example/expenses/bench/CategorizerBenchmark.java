@@ -0,0 +1,101 @@
+package com.example.expenses.bench;
+
+import com.example.expenses.ai.CategoryRules;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rule-based categorizer: the old approach (lowercase copy, then sequential
+ * String.contains per keyword in priority order) against the compiled
+ * CategoryRules automaton, as the rule set grows. Extra synthetic rules are
+ * appended after the shipped ones, so texts that fall through to "misc" pay
+ * for every rule in the sequential version.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategorizerBenchmark {
+
+    private static final String[] TEXTS = {
+            "Uber ride to airport Friday night",
+            "Apple store airpods replacement",
+            "Weekly groceries vegetables & fruits",
+            "Monthly plan broadband bill",
+            "Dinner with friends at the new place downtown",
+            "Netflix subscription",
+            "Gym membership renewal for the year",
+            "Plumber visit kitchen sink leak",
+    };
+
+    @Param({"0", "100", "1000"})
+    public int extraRules;
+
+    private List<String[]> sequential;   // category, keywords... (single-keyword alternatives only)
+    private CategoryRules compiled;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder file = new StringBuilder("[guess]\n");
+        sequential = new ArrayList<>();
+        try (InputStream in = CategoryRules.class.getResourceAsStream("/ai/category-rules.txt")) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            boolean inGuess = false;
+            for (String line : text.split("\n")) {
+                String t = line.trim();
+                if (t.startsWith("[")) inGuess = t.equals("[guess]");
+                if (!inGuess || t.isEmpty() || t.startsWith("#") || t.startsWith("[")) continue;
+                file.append(t).append('\n');
+                String[] parts = t.split("=", 2);
+                List<String> rule = new ArrayList<>();
+                rule.add(parts[0].trim());
+                // Flatten conjunctions to their keywords: the sequential cost is what matters here
+                for (String k : parts[1].split("[|+!]")) rule.add(k.trim());
+                sequential.add(rule.toArray(new String[0]));
+            }
+        }
+        for (int i = 0; i < extraRules; i++) {
+            String[] keywords = {"vendor" + i + "x", "brand" + i + "y", "shop" + i + "z"};
+            file.append("extra").append(i).append(" = ").append(String.join(" | ", keywords)).append('\n');
+            sequential.add(new String[]{"extra" + i, keywords[0], keywords[1], keywords[2]});
+        }
+        compiled = CategoryRules.load(new ByteArrayInputStream(file.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void sequentialContains(Blackhole bh) {
+        for (String text : TEXTS) {
+            bh.consume(sequentialGuess(text));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void compiledAutomaton(Blackhole bh) {
+        for (String text : TEXTS) {
+            bh.consume(compiled.firstMatch("guess", text));
+        }
+    }
+
+    private String sequentialGuess(String text) {
+        String t = text.toLowerCase(Locale.ROOT);
+        for (String[] rule : sequential) {
+            for (int k = 1; k < rule.length; k++) {
+                if (t.contains(rule[k])) return rule[0];
+            }
+        }
+        return "misc";
+    }
+}
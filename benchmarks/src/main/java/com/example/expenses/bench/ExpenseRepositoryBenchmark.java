@@ -0,0 +1,127 @@
+package com.example.expenses.bench;
+
+import com.example.expenses.model.Expense;
+import com.example.expenses.model.SummaryBucket;
+import com.example.expenses.repository.CategoryCache;
+import com.example.expenses.repository.CategoryRepository;
+import com.example.expenses.repository.ExpenseCache;
+import com.example.expenses.repository.ExpenseRepository;
+import com.example.expenses.repository.ExpenseRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExpenseRepository reads and writes against embedded H2 in MySQL mode,
+ * wired by hand (no Spring context, so each statement auto-commits). The
+ * table holds {@code rows} expenses over 100 users; writes append to it, so
+ * keep the write benchmarks' iteration counts comparable between runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseRepositoryBenchmark {
+
+    private static final int USERS = 100;
+
+    @Param({"100000"})
+    public int rows;
+
+    private SingleConnectionDataSource dataSource;
+    private ExpenseRepository repository;
+    private ExpenseRollupRepository rollups;
+    private LocalDate midDate;
+    private long midId;
+    private long seq;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:repository;MODE=MySQL;DB_CLOSE_DELAY=-1", true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        BenchData.createSchema(jdbc);
+        BenchData.insertExpenses(jdbc, rows, USERS);
+        BenchData.rebuildRollups(jdbc);
+        // Change events only feed caches and ETags; nothing listens here
+        ApplicationEventPublisher events = event -> { };
+        rollups = new ExpenseRollupRepository(jdbc, events);
+        CategoryCache categories = new CategoryCache(jdbc, new CategoryRepository(jdbc, events), events);
+        categories.warm();
+        // Expense cache off: these benchmarks measure the queries
+        repository = new ExpenseRepository(jdbc, rollups, categories, events,
+                new ExpenseCache(DataSize.ofBytes(0), new SimpleMeterRegistry()));
+        // Keyset cursor halfway down user 1's history
+        List<Expense> all = repository.findAllByUserId(1L);
+        Expense mid = all.get(all.size() / 2);
+        midDate = mid.getExpenseDate();
+        midId = mid.getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<Expense> findFirstPage() {
+        return repository.findPage(1L, null, null, 51);
+    }
+
+    @Benchmark
+    public List<Expense> findDeepPage() {
+        return repository.findPage(1L, midDate, midId, 51);
+    }
+
+    @Benchmark
+    public List<Expense> findAllByUser() {
+        return repository.findAllByUserId(1L);
+    }
+
+    @Benchmark
+    public List<SummaryBucket> summarizeByMonthLive() {
+        return repository.summarizeByMonth(1L, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<SummaryBucket> summarizeByMonthRollup() {
+        return rollups.summarizeByMonth(1L, ExpenseRepository.MIN_DATE, ExpenseRepository.MAX_DATE, null, null);
+    }
+
+    @Benchmark
+    public Long create() {
+        return repository.create(expense(seq++));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public int createBatchOf100() {
+        List<Expense> batch = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            batch.add(expense(seq++));
+        }
+        return repository.createBatch(batch);
+    }
+
+    private static Expense expense(long n) {
+        Expense e = new Expense();
+        e.setTitle("Bench " + n);
+        e.setAmount(BigDecimal.valueOf(100 + n % 10_000, 2));
+        e.setCategory(BenchData.CATEGORIES[(int) (n % BenchData.CATEGORIES.length)]);
+        e.setExpenseDate(LocalDate.now().minusDays(n % 365));
+        e.setUserId(n % USERS + 1);
+        e.setAccountId(n % 3 + 1);
+        return e;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.expenses.bench;
+
+import com.example.expenses.util.SecurityUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SecurityUtil.sha256 (hex-encodes each byte with String.format) against the
+ * digest alone and the digest plus HexFormat, to show how much of the call is
+ * formatting rather than hashing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashingBenchmark {
+
+    private String password = "correct horse battery staple";
+
+    @Benchmark
+    public String securityUtilSha256() {
+        return SecurityUtil.sha256(password);
+    }
+
+    @Benchmark
+    public byte[] digestOnly() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String digestHexFormat() throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8)));
+    }
+}
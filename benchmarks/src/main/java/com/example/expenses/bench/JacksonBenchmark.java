@@ -0,0 +1,76 @@
+package com.example.expenses.bench;
+
+import com.example.expenses.model.Expense;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a large List&lt;Expense&gt; response with an ObjectMapper
+ * configured like Spring Boot's: the whole body as one value (what
+ * GET /api/expenses returns without paging) versus element by element into a
+ * JsonGenerator (the stream=true path). Output goes to a discarding stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private ObjectWriter elementWriter;
+    private List<Expense> expenses;
+
+    @Setup
+    public void setUp() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        elementWriter = mapper.writerFor(Expense.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        LocalDate start = LocalDate.now().minusYears(3);
+        expenses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Expense e = new Expense();
+            e.setId((long) i + 1);
+            e.setTitle("Expense " + i);
+            e.setAmount(BigDecimal.valueOf(100 + (i * 37L) % 50_000, 2));
+            e.setCategory(BenchData.CATEGORIES[i % BenchData.CATEGORIES.length]);
+            e.setCategoryId((long) (i % BenchData.CATEGORIES.length) + 1);
+            e.setUserId(1L);
+            e.setAccountId((long) (i % 3) + 1);
+            e.setExpenseDate(start.plusDays(i % 1095));
+            e.setNotes(i % 3 == 0 ? null : "note " + i);
+            expenses.add(e);
+        }
+    }
+
+    @Benchmark
+    public void writeList() throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), expenses);
+    }
+
+    @Benchmark
+    public void writeStreamed() throws IOException {
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            gen.writeStartArray();
+            for (Expense e : expenses) {
+                elementWriter.writeValue(gen, e);
+            }
+            gen.writeEndArray();
+        }
+    }
+}
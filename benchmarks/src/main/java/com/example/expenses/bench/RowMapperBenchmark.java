@@ -0,0 +1,59 @@
+package com.example.expenses.bench;
+
+import com.example.expenses.model.Expense;
+import com.example.expenses.repository.RowMappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-query cost of mapping a large expenses result set with the reflective
+ * BeanPropertyRowMapper (as the repositories used to do, a new instance per
+ * call) versus the positional RowMappers.EXPENSE. Divide by rows for the
+ * per-row figure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final String SQL =
+            "SELECT id, title, amount, category, category_id AS categoryId, user_id AS userId, account_id AS accountId, expense_date AS expenseDate, notes FROM expenses";
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:rowmapper;MODE=MySQL;DB_CLOSE_DELAY=-1", true);
+        jdbc = new JdbcTemplate(dataSource);
+        BenchData.createSchema(jdbc);
+        BenchData.insertExpenses(jdbc, rows, 100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<Expense> beanPropertyRowMapper() {
+        return jdbc.query(SQL, new BeanPropertyRowMapper<>(Expense.class));
+    }
+
+    @Benchmark
+    public List<Expense> precompiledRowMapper() {
+        return jdbc.query(SQL, RowMappers.EXPENSE);
+    }
+}
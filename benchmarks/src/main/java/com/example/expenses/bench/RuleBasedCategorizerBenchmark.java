@@ -0,0 +1,66 @@
+package com.example.expenses.bench;
+
+import com.example.expenses.ai.RuleBasedCategorizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The offline path of POST /api/ai/suggest-category with the shipped rules:
+ * title rule, keyword guess over title + notes, and category normalization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleBasedCategorizerBenchmark {
+
+    private static final String[][] EXPENSES = {
+            {"Uber ride", "to airport Friday night"},
+            {"Apple store", "airpods replacement"},
+            {"Weekly groceries", "vegetables & fruits"},
+            {"Broadband bill", "monthly plan"},
+            {"Dinner with friends", "at the new place downtown"},
+            {"Netflix", "subscription"},
+            {"Gym membership", "renewal for the year"},
+            {"Plumber visit", "kitchen sink leak"},
+    };
+
+    private static final String[] LABELS = {"Groceries", "food", " Transportation ", "healthcare", "electronics", ""};
+
+    private RuleBasedCategorizer categorizer;
+
+    @Setup
+    public void setUp() throws IOException {
+        categorizer = new RuleBasedCategorizer(new ClassPathResource("ai/category-rules.txt"));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void fromTitle(Blackhole bh) {
+        for (String[] e : EXPENSES) {
+            bh.consume(categorizer.fromTitle(e[0]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public void guess(Blackhole bh) {
+        for (String[] e : EXPENSES) {
+            bh.consume(categorizer.guess(e[0] + " " + e[1]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(6)
+    public void normalize(Blackhole bh) {
+        for (String label : LABELS) {
+            bh.consume(RuleBasedCategorizer.normalize(label));
+        }
+    }
+}
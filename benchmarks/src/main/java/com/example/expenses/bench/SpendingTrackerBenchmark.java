@@ -0,0 +1,95 @@
+package com.example.expenses.bench;
+
+import com.example.expenses.budget.SpendingTracker;
+import com.example.expenses.event.ExpensesChangedEvent;
+import com.example.expenses.model.Budget;
+import com.example.expenses.model.Expense;
+import com.example.expenses.repository.BudgetRepository;
+import com.example.expenses.repository.SpendingStatsRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of keeping budget and anomaly state current on a save: the
+ * incremental SpendingTracker update vs recomputing the same statistics with
+ * a query over the user's history in the category. The tracker's cost should
+ * stay flat as {@code rows} grows; the query's grows with it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpendingTrackerBenchmark {
+
+    private static final int USERS = 100;
+
+    @Param({"10000", "200000"})
+    public int rows;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private SpendingTracker tracker;
+    private Expense[] created;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:spending;MODE=MySQL;DB_CLOSE_DELAY=-1", true);
+        jdbc = new JdbcTemplate(dataSource);
+        BenchData.createSchema(jdbc);
+        BenchData.insertExpenses(jdbc, rows, USERS);
+        BenchData.rebuildRollups(jdbc);
+        BudgetRepository budgets = new BudgetRepository(jdbc);
+        for (long userId = 1; userId <= USERS; userId++) {
+            for (long categoryId = 1; categoryId <= BenchData.CATEGORIES.length; categoryId++) {
+                Budget b = new Budget();
+                b.setUserId(userId);
+                b.setCategoryId(categoryId);
+                b.setMonthlyLimit(BigDecimal.valueOf(1000));
+                budgets.upsert(b);
+            }
+        }
+        tracker = new SpendingTracker(budgets, new SpendingStatsRepository(jdbc), 3.0, 10, new BigDecimal("0.8"), 100, Runnable::run);
+        tracker.onStartup();
+        // Saves dated today, spread over users and categories like the seeded rows
+        created = new Expense[1024];
+        for (int i = 0; i < created.length; i++) {
+            Expense e = new Expense();
+            e.setId((long) rows + i + 1);
+            e.setUserId((long) (i % USERS) + 1);
+            e.setCategoryId((long) (i % BenchData.CATEGORIES.length) + 1);
+            e.setCategory(BenchData.CATEGORIES[i % BenchData.CATEGORIES.length]);
+            e.setAmount(BigDecimal.valueOf(100 + (i * 37L) % 50_000, 2));
+            e.setExpenseDate(LocalDate.now());
+            created[i] = e;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public void trackerOnCreate() {
+        Expense e = created[next++ & (created.length - 1)];
+        tracker.onExpensesChanged(ExpensesChangedEvent.created(List.of(e)));
+    }
+
+    @Benchmark
+    public Map<String, Object> queryStatsOnCreate() {
+        Expense e = created[next++ & (created.length - 1)];
+        return jdbc.queryForMap("SELECT COUNT(*), AVG(amount), VAR_POP(amount) FROM expenses WHERE user_id = ? AND category_id = ?",
+                e.getUserId(), e.getCategoryId());
+    }
+}
@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+# Converts an existing unpartitioned expenses table to RANGE COLUMNS(expense_date) partitions without
+# blocking writes, using pt-online-schema-change (Percona Toolkit): it copies rows in chunks into a
+# partitioned shadow table kept in step by triggers, then swaps the tables with an atomic RENAME.
+#
+# Partitions: p_history for anything before the oldest expense's month (or year), one per period up to
+# AHEAD periods from now, and the catch-all p_future that ExpensePartitionMaintenance splits later. The
+# primary key becomes (id, expense_date), as MySQL requires the partitioning column in every unique key.
+#
+# Dry run by default (prints the ALTER and the triggers pt-osc would create); EXECUTE=1 to migrate.
+# OFFLINE=1 runs a plain ALTER TABLE instead (copies the table while blocking writes; fine for dev data).
+set -euo pipefail
+
+MYSQL_HOST=${MYSQL_HOST:-localhost}
+MYSQL_PORT=${MYSQL_PORT:-3306}
+MYSQL_USER=${MYSQL_USER:-root}
+MYSQL_PASSWORD=${MYSQL_PASSWORD:-password}
+MYSQL_DATABASE=${MYSQL_DATABASE:-expenses_tracker}
+GRANULARITY=${GRANULARITY:-month}
+AHEAD=${AHEAD:-3}
+EXECUTE=${EXECUTE:-0}
+OFFLINE=${OFFLINE:-0}
+
+mysql_q() {
+  MYSQL_PWD="$MYSQL_PASSWORD" mysql -h "$MYSQL_HOST" -P "$MYSQL_PORT" -u "$MYSQL_USER" -D "$MYSQL_DATABASE" -N -B -e "$1"
+}
+
+partitioned=$(mysql_q "SELECT COUNT(*) FROM information_schema.PARTITIONS
+  WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'expenses' AND PARTITION_NAME IS NOT NULL")
+if [ "$partitioned" != "0" ]; then
+  echo "expenses is already partitioned"
+  exit 0
+fi
+
+case "$GRANULARITY" in
+  month) unit=MONTH; trunc_fmt='%Y-%m-01'; name_fmt='%Y%m' ;;
+  year)  unit=YEAR;  trunc_fmt='%Y-01-01'; name_fmt='%Y' ;;
+  *) echo "GRANULARITY must be month or year" >&2; exit 1 ;;
+esac
+
+# One partition per period from the oldest expense to AHEAD periods past the current one
+partitions=$(mysql_q "SET SESSION group_concat_max_len = 1048576, SESSION cte_max_recursion_depth = 100000;
+  WITH RECURSIVE bounds AS (
+    SELECT CAST((SELECT DATE_FORMAT(COALESCE(MIN(expense_date), CURDATE()), '$trunc_fmt') FROM expenses) AS DATE) AS d
+    UNION ALL
+    SELECT d + INTERVAL 1 $unit FROM bounds
+    WHERE d < CAST(DATE_FORMAT(CURDATE(), '$trunc_fmt') AS DATE) + INTERVAL $AHEAD $unit
+  )
+  SELECT CONCAT('PARTITION p_history VALUES LESS THAN (''', MIN(d), '''), ',
+                GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(d, '$name_fmt'), ' VALUES LESS THAN (''', d + INTERVAL 1 $unit, ''')')
+                             ORDER BY d SEPARATOR ', '))
+  FROM bounds")
+
+alter="DROP PRIMARY KEY, ADD PRIMARY KEY (id, expense_date)
+  PARTITION BY RANGE COLUMNS (expense_date) ($partitions, PARTITION p_future VALUES LESS THAN (MAXVALUE))"
+
+if [ "$OFFLINE" = "1" ]; then
+  echo "ALTER TABLE expenses $alter"
+  if [ "$EXECUTE" = "1" ]; then
+    mysql_q "ALTER TABLE expenses $alter"
+    echo "done"
+  fi
+  exit 0
+fi
+
+# --no-check-alter: the tool refuses DROP PRIMARY KEY by default. The id column stays the leading key column,
+# so its delete trigger (matching on id) still finds the copied row.
+mode=(--dry-run --print)
+[ "$EXECUTE" = "1" ] && mode=(--execute)
+pt-online-schema-change \
+  --alter "$alter" \
+  --no-check-alter \
+  --chunk-time 0.5 \
+  --max-load Threads_running=50 --critical-load Threads_running=200 \
+  "${mode[@]}" \
+  "h=$MYSQL_HOST,P=$MYSQL_PORT,u=$MYSQL_USER,p=$MYSQL_PASSWORD,D=$MYSQL_DATABASE,t=expenses"
@@ -0,0 +1,11 @@
+-- Runs once, when the replica's data directory is first initialised: follow db using GTID auto-positioning
+-- and refuse every write that does not come through replication.
+CHANGE REPLICATION SOURCE TO
+  SOURCE_HOST = 'db',
+  SOURCE_PORT = 3306,
+  SOURCE_USER = 'root',
+  SOURCE_PASSWORD = 'password',
+  SOURCE_AUTO_POSITION = 1,
+  GET_SOURCE_PUBLIC_KEY = 1;
+START REPLICA;
+SET PERSIST super_read_only = ON;
@@ -1,6 +1,8 @@
 export type User = { id: number; email: string; name: string }
 export type Expense = { id?: number; title: string; amount: number; category: string; expenseDate: string; notes?: string|null; userId?: number|null; accountId?: number }
 export type Category = { id: number; name: string; type?: string; color?: string }
+export type SummaryBucket = { key: string|null; label: string|null; total: number; count: number }
+export type ExpenseSummary = { total: number; count: number; byMonth: SummaryBucket[]; byCategory: SummaryBucket[]; byAccount: SummaryBucket[] }
 
 const API_BASE = (import.meta as any).env?.VITE_API_BASE || ''
 
@@ -20,6 +22,10 @@ export const api = {
     const res = await fetch(`${API_BASE}/api/expenses${q}`)
     return json<Expense[]>(res)
   },
+  async summary(userId: number){
+    const res = await fetch(`${API_BASE}/api/expenses/summary?userId=${encodeURIComponent(userId)}`)
+    return json<ExpenseSummary>(res)
+  },
   async saveExpense(expense: Expense){
     const method = expense.id ? 'PUT' : 'POST'
     const url = expense.id ? `${API_BASE}/api/expenses/${expense.id}` : `${API_BASE}/api/expenses`
@@ -1,5 +1,5 @@
 import { useEffect, useMemo, useState } from 'react'
-import { api, type Expense, type User } from '../lib/api'
+import { api, type Expense, type ExpenseSummary, type User } from '../lib/api'
 import { Chart as ChartJS, ArcElement, Tooltip, Legend } from 'chart.js'
 import { Pie } from 'react-chartjs-2'
 
@@ -21,6 +21,7 @@ export default function App(){
     try{ return JSON.parse(localStorage.getItem('currentUser')||'') }catch{ return null }
   })
   const [list, setList] = useState<Expense[]>([])
+  const [summary, setSummary] = useState<ExpenseSummary|null>(null)
   const [categories, setCategories] = useState<string[]>([])
   const [form, setForm] = useState<Expense>({ title:'', amount:0, category:'', expenseDate: new Date().toISOString().slice(0,10), notes:'', userId: user?.id||null, accountId: 1 })
   const [amountText, setAmountText] = useState<string>('0')
@@ -32,21 +33,22 @@ export default function App(){
   useEffect(()=>{ document.body.className = theme; localStorage.setItem('theme', theme) }, [theme])
 
   async function refresh(){
-    if(!user){ setList([]); return }
+    if(!user){ setList([]); setSummary(null); return }
     setLoading(true)
     try{ 
-      const [expenses, cats] = await Promise.all([api.listExpenses(user.id), api.listCategories()])
+      const [expenses, cats, sum] = await Promise.all([api.listExpenses(user.id), api.listCategories(), api.summary(user.id)])
       setList(expenses)
+      setSummary(sum)
       setCategories(cats.map(c=>c.name))
     } finally{ setLoading(false) }
   }
 
   const stats = useMemo(() => {
-    const total = list.reduce((s, e) => s + (e.amount || 0), 0)
+    // Totals are aggregated server-side (GET /api/expenses/summary)
     const byCategory: Record<string, number> = {}
-    list.forEach(e => { byCategory[e.category] = (byCategory[e.category] || 0) + (e.amount || 0) })
-    return { total, count: list.length, byCategory }
-  }, [list])
+    summary?.byCategory.forEach(b => { const k = b.label || 'misc'; byCategory[k] = (byCategory[k] || 0) + Number(b.total) })
+    return { total: Number(summary?.total || 0), count: summary?.count || 0, byCategory }
+  }, [summary])
 
   async function login(email: string, password: string){
     try{ const u = await api.login(email, password); setUser(u) } catch{ alert('Login failed. Try Register or Use demo.')} }
@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Default vs fast-startup (AOT + AppCDS) builds: time-to-first-request and RSS after it.
+#
+# Builds the plain jar and the -Pfast-startup layout (target/app with application.jsa), then starts each RUNS
+# times and polls PROBE_PATH until the first 200. One JSON line per build is appended to $OUT. No database is
+# needed for the default probe (/actuator/info); the app starts without one and connects lazily.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+APP_PORT=${APP_PORT:-8091}
+PROBE_PATH=${PROBE_PATH:-/actuator/info}
+JAVA_OPTS=${JAVA_OPTS:-}
+OUT=${OUT:-loadtest/target/startup-results.json}
+
+mvn -q -f loadtest/pom.xml package
+CP=loadtest/target/loadtest.jar
+mvn -q -DskipTests package
+cp target/expenses-tracker-0.0.1-SNAPSHOT.jar loadtest/target/startup-default.jar
+mvn -q -DskipTests -Pfast-startup package
+
+java -cp "$CP" com.example.expenses.loadtest.StartupBenchmark --label default --runs "$RUNS" \
+  --url "http://localhost:$APP_PORT$PROBE_PATH" --out "$OUT" \
+  --cmd "java $JAVA_OPTS -jar loadtest/target/startup-default.jar --server.port=$APP_PORT"
+
+java -cp "$CP" com.example.expenses.loadtest.StartupBenchmark --label fast --runs "$RUNS" --workdir target/app \
+  --url "http://localhost:$APP_PORT$PROBE_PATH" --out "$OUT" \
+  --cmd "java $JAVA_OPTS -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar expenses-tracker-0.0.1-SNAPSHOT.jar --server.port=$APP_PORT"
+echo "results: $OUT"
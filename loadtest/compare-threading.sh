@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Platform threads vs virtual threads while the LLM is slow.
+#
+# Starts the stub LLM with a fixed latency, then runs the app once per threading mode and drives the
+# same mixed load (AI suggestions + category reads) against it. One JSON line per mode is appended
+# to $OUT. Needs JDK 21 on PATH and MySQL reachable with the app's datasource settings.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+LATENCY_MS=${LATENCY_MS:-5000}
+CONCURRENCY=${CONCURRENCY:-400}
+DURATION_S=${DURATION_S:-60}
+AI_RATIO=${AI_RATIO:-0.5}
+APP_PORT=${APP_PORT:-8091}
+STUB_PORT=${STUB_PORT:-9099}
+OUT=${OUT:-loadtest/target/threading-results.json}
+
+mvn -q -Pjava21 -DskipTests package
+mvn -q -f loadtest/pom.xml package
+CP=loadtest/target/loadtest.jar
+
+java -cp "$CP" com.example.expenses.loadtest.StubLlmServer --port "$STUB_PORT" --latency-ms "$LATENCY_MS" &
+STUB_PID=$!
+APP_PID=
+cleanup() { [ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null || true; kill "$STUB_PID" 2>/dev/null || true; }
+trap cleanup EXIT
+
+for mode in platform virtual; do
+  VIRTUAL_THREADS=$([ "$mode" = virtual ] && echo true || echo false) \
+  OPENAI_API_KEY=stub OPENAI_BASE_URL="http://localhost:$STUB_PORT/v1" \
+    java -jar target/expenses-tracker-0.0.1-SNAPSHOT.jar --server.port="$APP_PORT" > "loadtest/target/app-$mode.log" 2>&1 &
+  APP_PID=$!
+  until curl -sf "http://localhost:$APP_PORT/api/categories" > /dev/null; do sleep 1; done
+
+  java -cp "$CP" com.example.expenses.loadtest.LoadDriver --base-url "http://localhost:$APP_PORT" \
+    --concurrency "$CONCURRENCY" --duration-s "$DURATION_S" --ai-ratio "$AI_RATIO" --label "$mode" --out "$OUT"
+
+  kill "$APP_PID"; wait "$APP_PID" 2>/dev/null || true; APP_PID=
+done
+echo "results: $OUT"
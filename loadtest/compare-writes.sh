@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Synchronous creates vs the write-behind ingest queue under concurrent writers.
+#
+# Starts the app with INGEST_ENABLED=true and drives the same closed-loop write load first at
+# POST /api/expenses (one transaction per request) and then at POST /api/expenses/ingest (group
+# commits). One JSON line per path is appended to $OUT. Needs MySQL reachable with the app's
+# datasource settings; the runs insert real rows.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+CONCURRENCY=${CONCURRENCY:-64}
+DURATION_S=${DURATION_S:-30}
+APP_PORT=${APP_PORT:-8091}
+OUT=${OUT:-loadtest/target/write-results.json}
+
+mvn -q -DskipTests package
+mvn -q -f loadtest/pom.xml package
+CP=loadtest/target/loadtest.jar
+
+INGEST_ENABLED=true java -jar target/expenses-tracker-0.0.1-SNAPSHOT.jar --server.port="$APP_PORT" > loadtest/target/app-writes.log 2>&1 &
+APP_PID=$!
+trap 'kill "$APP_PID" 2>/dev/null || true' EXIT
+until curl -sf "http://localhost:$APP_PORT/api/categories" > /dev/null; do sleep 1; done
+
+for path in /api/expenses /api/expenses/ingest; do
+  java -cp "$CP" com.example.expenses.loadtest.WriteDriver --base-url "http://localhost:$APP_PORT" --path "$path" \
+    --concurrency "$CONCURRENCY" --duration-s "$DURATION_S" --out "$OUT"
+done
+echo "results: $OUT"
@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+# Mixed workload against a freshly seeded database, with the stub standing in for OpenAI.
+#
+# Starts a throwaway MySQL (loadtest/docker-compose.yml), seeds it (seed-db.sh), starts the stub LLM with
+# LATENCY_MS / JITTER_MS / ERROR_RATE, runs the app against both and drives MixedWorkloadDriver. One JSON line
+# per run is appended to $OUT. Needs Docker and a JDK; SKIP_SEED=1 reuses the data of a KEEP_DB=1 run.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+USERS=${USERS:-10000}
+EXPENSES_PER_USER=${EXPENSES_PER_USER:-200}
+LOGIN_USERS=${LOGIN_USERS:-1000}
+LATENCY_MS=${LATENCY_MS:-800}
+JITTER_MS=${JITTER_MS:-400}
+ERROR_RATE=${ERROR_RATE:-0.02}
+CONCURRENCY=${CONCURRENCY:-64}
+DURATION_S=${DURATION_S:-60}
+MIX=${MIX:-list=25,filter=10,summary=10,search=10,detail=5,categories=10,login=5,ai=10,create=10,update=3,delete=2}
+LABEL=${LABEL:-mixed}
+DB_PORT=${LOADTEST_DB_PORT:-3316}
+APP_PORT=${APP_PORT:-8091}
+STUB_PORT=${STUB_PORT:-9099}
+OUT=${OUT:-loadtest/target/mixed-results.json}
+COMPOSE=(docker compose -f loadtest/docker-compose.yml)
+
+mvn -q -DskipTests package
+mvn -q -f loadtest/pom.xml package
+CP=loadtest/target/loadtest.jar
+
+"${COMPOSE[@]}" up -d --wait
+STUB_PID=
+APP_PID=
+cleanup() {
+  [ -n "$APP_PID" ] && kill "$APP_PID" 2>/dev/null || true
+  [ -n "$STUB_PID" ] && kill "$STUB_PID" 2>/dev/null || true
+  [ "${KEEP_DB:-0}" = "1" ] || "${COMPOSE[@]}" down
+}
+trap cleanup EXIT
+
+if [ "${SKIP_SEED:-0}" != "1" ]; then
+  USERS=$USERS EXPENSES_PER_USER=$EXPENSES_PER_USER MYSQL_CONTAINER=expenses-loadtest-mysql loadtest/seed-db.sh
+fi
+
+java -cp "$CP" com.example.expenses.loadtest.StubLlmServer --port "$STUB_PORT" \
+  --latency-ms "$LATENCY_MS" --jitter-ms "$JITTER_MS" --error-rate "$ERROR_RATE" &
+STUB_PID=$!
+
+SPRING_DATASOURCE_URL="jdbc:mysql://127.0.0.1:$DB_PORT/expenses_tracker?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048" \
+OPENAI_API_KEY=stub OPENAI_BASE_URL="http://localhost:$STUB_PORT/v1" \
+  java -jar target/expenses-tracker-0.0.1-SNAPSHOT.jar --server.port="$APP_PORT" > loadtest/target/app-mixed.log 2>&1 &
+APP_PID=$!
+until curl -sf "http://localhost:$APP_PORT/api/categories" > /dev/null; do sleep 1; done
+
+java -cp "$CP" com.example.expenses.loadtest.MixedWorkloadDriver --base-url "http://localhost:$APP_PORT" \
+  --users "$LOGIN_USERS" --concurrency "$CONCURRENCY" --duration-s "$DURATION_S" --mix "$MIX" \
+  --label "$LABEL" --out "$OUT"
+curl -s "http://localhost:$STUB_PORT/stats"; echo
+echo "results: $OUT"
@@ -0,0 +1,104 @@
+#!/usr/bin/env bash
+# Resets the database and seeds it with synthetic load-test data.
+#
+# Applies schema.sql and data.sql, splits p_future into the monthly partitions the app would create, then adds
+# USERS users ("load<n>@loadtest.local", password "loadtest") with a cash and a bank account each and
+# EXPENSES_PER_USER expenses per user spread over the last DAYS days, and rebuilds expense_rollups.
+# Defaults give 2M expenses. Set MYSQL_CONTAINER to run the mysql client inside that container instead of
+# needing one on the host. DESTROYS all existing data in $MYSQL_DATABASE.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+MYSQL_HOST=${MYSQL_HOST:-127.0.0.1}
+MYSQL_PORT=${MYSQL_PORT:-3316}
+MYSQL_USER=${MYSQL_USER:-root}
+MYSQL_PASSWORD=${MYSQL_PASSWORD:-password}
+MYSQL_DATABASE=${MYSQL_DATABASE:-expenses_tracker}
+MYSQL_CONTAINER=${MYSQL_CONTAINER:-}
+USERS=${USERS:-10000}
+EXPENSES_PER_USER=${EXPENSES_PER_USER:-200}
+DAYS=${DAYS:-730}
+CHUNK_USERS=${CHUNK_USERS:-500}
+AHEAD=${AHEAD:-3}
+
+mysql_q() {
+  if [ -n "$MYSQL_CONTAINER" ]; then
+    docker exec -i -e MYSQL_PWD="$MYSQL_PASSWORD" "$MYSQL_CONTAINER" \
+      mysql -u "$MYSQL_USER" -D "$MYSQL_DATABASE" -N -B "$@"
+  else
+    MYSQL_PWD="$MYSQL_PASSWORD" mysql -h "$MYSQL_HOST" -P "$MYSQL_PORT" -u "$MYSQL_USER" -D "$MYSQL_DATABASE" -N -B "$@"
+  fi
+}
+
+echo "schema + reference data"
+mysql_q < src/main/resources/schema.sql
+mysql_q < src/main/resources/data.sql
+
+# Same partition names and bounds as ExpensePartitionMaintenance, created while the table is still small
+echo "monthly partitions"
+partitions=$(mysql_q -e "SET SESSION group_concat_max_len = 1048576, SESSION cte_max_recursion_depth = 100000;
+  WITH RECURSIVE bounds AS (
+    SELECT DATE '2025-01-01' AS d
+    UNION ALL
+    SELECT d + INTERVAL 1 MONTH FROM bounds
+    WHERE d < CAST(DATE_FORMAT(CURDATE(), '%Y-%m-01') AS DATE) + INTERVAL $AHEAD MONTH
+  )
+  SELECT GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(d, '%Y%m'), ' VALUES LESS THAN (''', d + INTERVAL 1 MONTH, ''')')
+                      ORDER BY d SEPARATOR ', ')
+  FROM bounds")
+mysql_q -e "ALTER TABLE expenses REORGANIZE PARTITION p_future INTO ($partitions, PARTITION p_future VALUES LESS THAN (MAXVALUE))"
+
+echo "$USERS users"
+max_n=$(( USERS > EXPENSES_PER_USER ? USERS : EXPENSES_PER_USER ))
+mysql_q -e "DROP TABLE IF EXISTS lt_seq;
+  CREATE TABLE lt_seq (n INT PRIMARY KEY);
+  INSERT INTO lt_seq (n)
+  WITH d AS (SELECT 0 AS v UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+             UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9)
+  SELECT n FROM (
+    SELECT a.v + 10 * b.v + 100 * c.v + 1000 * e.v + 10000 * f.v + 100000 * g.v AS n
+    FROM d a, d b, d c, d e, d f, d g
+  ) s WHERE n < $max_n;
+
+  INSERT INTO users (email, name, password_hash)
+  SELECT CONCAT('load', n, '@loadtest.local'), CONCAT('Load user ', n), SHA2('loadtest', 256)
+  FROM lt_seq WHERE n < $USERS ORDER BY n;
+
+  INSERT INTO accounts (user_id, name, type, currency_code)
+  SELECT id, 'Cash', 'cash', 'USD' FROM users WHERE email LIKE '%@loadtest.local'
+  UNION ALL
+  SELECT id, 'Bank', 'bank', 'USD' FROM users WHERE email LIKE '%@loadtest.local'"
+
+read -r first_id last_id < <(mysql_q -e "SELECT MIN(id), MAX(id) FROM users WHERE email LIKE '%@loadtest.local'")
+categories=$(mysql_q -e "SELECT COUNT(*) FROM categories")
+
+echo "$(( USERS * EXPENSES_PER_USER )) expenses"
+for (( lo = first_id; lo <= last_id; lo += CHUNK_USERS )); do
+  hi=$(( lo + CHUNK_USERS - 1 ))
+  # Titles reuse a small vocabulary so searches hit; amounts, dates, categories and accounts vary per row
+  mysql_q -e "INSERT INTO expenses (title, amount, category, expense_date, notes, user_id, account_id, category_id)
+    SELECT CONCAT(ELT(1 + (s.n + u.id) % 12, 'Coffee', 'Groceries', 'Fuel', 'Lunch', 'Pharmacy', 'Cinema',
+                      'Internet', 'Gym', 'Books', 'Taxi', 'Rent', 'Electricity'), ' ', s.n),
+           ROUND(1 + ((s.n * 7919 + u.id * 104729) % 50000) / 100, 2),
+           c.name,
+           CURDATE() - INTERVAL ((s.n * 37 + u.id) % $DAYS) DAY,
+           ELT(1 + s.n % 5, 'card', 'weekly', 'shared with friends', 'receipt kept', NULL),
+           u.id, a.id, c.id
+    FROM users u
+    JOIN lt_seq s ON s.n < $EXPENSES_PER_USER
+    JOIN categories c ON c.id = 1 + (s.n * 7 + u.id) % $categories
+    JOIN accounts a ON a.user_id = u.id AND a.type = IF(s.n % 3 = 0, 'cash', 'bank')
+    WHERE u.id BETWEEN $lo AND $hi"
+  echo "  users $lo..$(( hi < last_id ? hi : last_id ))"
+done
+
+echo "rollups"
+mysql_q -e "DROP TABLE lt_seq;
+  DELETE FROM expense_rollups;
+  INSERT INTO expense_rollups (user_id, period, category_id, account_id, total, cnt)
+  SELECT COALESCE(user_id, 0), DATE_FORMAT(expense_date, '%Y-%m'), COALESCE(category_id, 0), COALESCE(account_id, 0), SUM(amount), COUNT(*)
+  FROM expenses
+  GROUP BY COALESCE(user_id, 0), DATE_FORMAT(expense_date, '%Y-%m'), COALESCE(category_id, 0), COALESCE(account_id, 0);
+  ANALYZE TABLE users, accounts, expenses, expense_rollups"
+
+mysql_q -e "SELECT CONCAT((SELECT COUNT(*) FROM users), ' users, ', (SELECT COUNT(*) FROM expenses), ' expenses')"
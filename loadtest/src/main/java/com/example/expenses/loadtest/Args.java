@@ -0,0 +1,36 @@
+package com.example.expenses.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** "--name value" command-line options with typed defaults. */
+final class Args {
+    private final Map<String, String> values = new HashMap<>();
+
+    Args(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("unexpected argument: " + args[i]);
+            String name = args[i].substring(2);
+            int eq = name.indexOf('=');
+            if (eq >= 0) {
+                values.put(name.substring(0, eq), name.substring(eq + 1));
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                values.put(name, args[++i]);
+            } else {
+                values.put(name, "true");
+            }
+        }
+    }
+
+    String get(String name, String def) {
+        return values.getOrDefault(name, def);
+    }
+
+    int getInt(String name, int def) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : def;
+    }
+
+    double getDouble(String name, double def) {
+        return values.containsKey(name) ? Double.parseDouble(values.get(name)) : def;
+    }
+}
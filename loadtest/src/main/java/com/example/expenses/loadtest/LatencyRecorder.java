@@ -0,0 +1,54 @@
+package com.example.expenses.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Raw latency samples for one operation, owned by a single worker thread and
+ * merged at the end; percentiles are exact (sorted samples).
+ */
+final class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos) {
+        if (size == samples.length) samples = Arrays.copyOf(samples, size * 2);
+        samples[size++] = nanos;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    void merge(LatencyRecorder other) {
+        if (size + other.size > samples.length) samples = Arrays.copyOf(samples, size + other.size);
+        System.arraycopy(other.samples, 0, samples, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    long count() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    /** JSON object with throughput and latency percentiles in milliseconds. */
+    String toJson(double seconds) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return String.format(Locale.ROOT,
+                "{\"requests\":%d,\"errors\":%d,\"throughput\":%.2f,\"p50\":%.2f,\"p95\":%.2f,\"p99\":%.2f,\"max\":%.2f}",
+                size, errors, size / seconds, pct(sorted, 0.50), pct(sorted, 0.95), pct(sorted, 0.99),
+                size == 0 ? 0.0 : sorted[size - 1] / 1e6);
+    }
+
+    private static double pct(long[] sorted, double p) {
+        if (sorted.length == 0) return 0.0;
+        int idx = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.expenses.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load against a running app: each worker sends requests
+ * back to back for the given duration. A fraction of requests are AI
+ * suggestions with unique titles (so neither the hard rules nor the cache
+ * short-circuit the LLM call); the rest are ordinary reads, which is the
+ * traffic a slow LLM must not starve.
+ *
+ * <pre>
+ * java -cp loadtest/target/loadtest.jar com.example.expenses.loadtest.LoadDriver \
+ *      --base-url http://localhost:8081 --concurrency 400 --duration-s 60 --ai-ratio 0.5 --label platform --out results.json
+ * </pre>
+ * Results are written as one JSON object per run (appended to --out when given).
+ */
+public class LoadDriver {
+
+    private static final AtomicLong SEQ = new AtomicLong();
+
+    public static void main(String[] argv) throws Exception {
+        Args args = new Args(argv);
+        String baseUrl = args.get("base-url", "http://localhost:8081");
+        int concurrency = args.getInt("concurrency", 200);
+        int durationS = args.getInt("duration-s", 30);
+        double aiRatio = args.getDouble("ai-ratio", 0.5);
+        String label = args.get("label", "run");
+        String out = args.get("out", null);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationS).toNanos();
+
+        List<Thread> workers = new ArrayList<>();
+        List<LatencyRecorder[]> recorders = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            LatencyRecorder[] rec = {new LatencyRecorder(), new LatencyRecorder()};
+            recorders.add(rec);
+            Thread t = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    boolean ai = ThreadLocalRandom.current().nextDouble() < aiRatio;
+                    HttpRequest request = ai ? suggestRequest(baseUrl) : readRequest(baseUrl);
+                    send(client, request, ai ? rec[0] : rec[1]);
+                }
+            }, "load-" + i);
+            t.setDaemon(true);
+            workers.add(t);
+        }
+        long started = System.nanoTime();
+        workers.forEach(Thread::start);
+        for (Thread t : workers) t.join();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        LatencyRecorder aiAll = new LatencyRecorder();
+        LatencyRecorder readAll = new LatencyRecorder();
+        for (LatencyRecorder[] rec : recorders) {
+            aiAll.merge(rec[0]);
+            readAll.merge(rec[1]);
+        }
+        String json = String.format(Locale.ROOT,
+                "{\"label\":\"%s\",\"concurrency\":%d,\"durationS\":%.1f,\"ai\":%s,\"read\":%s}",
+                label, concurrency, seconds, aiAll.toJson(seconds), readAll.toJson(seconds));
+        System.out.println(json);
+        if (out != null) {
+            Files.writeString(Path.of(out), json + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private static HttpRequest suggestRequest(String baseUrl) {
+        String body = "{\"title\":\"load item " + SEQ.incrementAndGet() + "\",\"notes\":\"synthetic\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/ai/suggest-category"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private static HttpRequest readRequest(String baseUrl) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/categories"))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private static void send(HttpClient client, HttpRequest request, LatencyRecorder rec) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() >= 400) {
+                rec.error();
+                return;
+            }
+            rec.record(System.nanoTime() - start);
+        } catch (IOException e) {
+            rec.error();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.expenses.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop mixed workload against an app seeded by seed-db.sh: every
+ * worker picks an operation by weight and sends it back to back for the given
+ * duration. Operations cover /api/expenses (lists, filters, summaries, search,
+ * single reads and writes), /api/categories, /api/auth and /api/ai.
+ *
+ * <p>Seeded users ("load{n}@loadtest.local", password "loadtest") are logged
+ * in once up front to learn their ids. Updates and deletes only touch
+ * expenses the same worker created, so the seeded data set stays intact.
+ *
+ * <pre>
+ * java -cp loadtest/target/loadtest.jar com.example.expenses.loadtest.MixedWorkloadDriver \
+ *      --base-url http://localhost:8091 --users 1000 --concurrency 64 --duration-s 60 \
+ *      --mix list=25,filter=10,summary=10,search=10,detail=5,categories=10,login=5,ai=10,create=10,update=3,delete=2
+ * </pre>
+ * Results are written as one JSON object per run (appended to --out when
+ * given) with overall and per-operation throughput and latency percentiles.
+ */
+public class MixedWorkloadDriver {
+
+    enum Op { LIST, FILTER, SUMMARY, SEARCH, DETAIL, CATEGORIES, LOGIN, AI, CREATE, UPDATE, DELETE }
+
+    private static final String DEFAULT_MIX =
+            "list=25,filter=10,summary=10,search=10,detail=5,categories=10,login=5,ai=10,create=10,update=3,delete=2";
+    // Words the seeded titles are built from (seed-db.sh), so searches find something
+    private static final String[] WORDS = {"coffee", "groceries", "fuel", "lunch", "pharmacy", "cinema",
+            "internet", "gym", "books", "taxi", "rent", "electricity"};
+    private static final String[] CATEGORIES = {"grocery", "transit", "utilities", "treat", "health", "shopping"};
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final AtomicLong SEQ = new AtomicLong();
+
+    public static void main(String[] argv) throws Exception {
+        Args args = new Args(argv);
+        String baseUrl = args.get("base-url", "http://localhost:8081");
+        int users = args.getInt("users", 1000);
+        String password = args.get("password", "loadtest");
+        int concurrency = args.getInt("concurrency", 64);
+        int durationS = args.getInt("duration-s", 60);
+        int days = args.getInt("days", 730);
+        double aiUnique = args.getDouble("ai-unique", 0.5);
+        String label = args.get("label", "mixed");
+        String out = args.get("out", null);
+        int[] weights = parseMix(args.get("mix", DEFAULT_MIX));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long[] userIds = login(client, baseUrl, users, password, concurrency);
+        System.err.println("logged in " + userIds.length + " users");
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationS).toNanos();
+        List<Thread> workers = new ArrayList<>();
+        List<LatencyRecorder[]> recorders = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Worker w = new Worker(client, baseUrl, userIds, password, days, aiUnique, weights);
+            recorders.add(w.recorders);
+            Thread t = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    w.next();
+                }
+            }, "mixed-" + i);
+            t.setDaemon(true);
+            workers.add(t);
+        }
+        long started = System.nanoTime();
+        workers.forEach(Thread::start);
+        for (Thread t : workers) t.join();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        LatencyRecorder total = new LatencyRecorder();
+        StringBuilder ops = new StringBuilder();
+        for (Op op : Op.values()) {
+            if (weights[op.ordinal()] == 0) continue;
+            LatencyRecorder merged = new LatencyRecorder();
+            for (LatencyRecorder[] rec : recorders) merged.merge(rec[op.ordinal()]);
+            total.merge(merged);
+            if (ops.length() > 0) ops.append(',');
+            ops.append('"').append(op.name().toLowerCase(Locale.ROOT)).append("\":").append(merged.toJson(seconds));
+        }
+        String json = String.format(Locale.ROOT,
+                "{\"label\":\"%s\",\"concurrency\":%d,\"users\":%d,\"durationS\":%.1f,\"total\":%s,\"ops\":{%s}}",
+                label, concurrency, userIds.length, seconds, total.toJson(seconds), ops);
+        System.out.println(json);
+        if (out != null) {
+            Files.writeString(Path.of(out), json + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /** "name=weight,..." over {@link Op}; operations left out get weight 0. */
+    static int[] parseMix(String mix) {
+        int[] weights = new int[Op.values().length];
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) throw new IllegalArgumentException("bad mix entry: " + part);
+            weights[Op.valueOf(kv[0].trim().toUpperCase(Locale.ROOT)).ordinal()] = Integer.parseInt(kv[1].trim());
+        }
+        int sum = 0;
+        for (int w : weights) sum += w;
+        if (sum <= 0) throw new IllegalArgumentException("mix has no positive weights: " + mix);
+        return weights;
+    }
+
+    private static long[] login(HttpClient client, String baseUrl, int users, String password, int parallelism)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, 32)));
+        try {
+            List<Future<Long>> ids = new ArrayList<>(users);
+            for (int n = 0; n < users; n++) {
+                String email = email(n);
+                ids.add(pool.submit(() -> {
+                    HttpResponse<String> r = client.send(loginRequest(baseUrl, email, password),
+                            HttpResponse.BodyHandlers.ofString());
+                    if (r.statusCode() != 200) {
+                        throw new IllegalStateException("login failed for " + email + " (HTTP " + r.statusCode()
+                                + "); seed the database with loadtest/seed-db.sh first");
+                    }
+                    return parseId(r.body());
+                }));
+            }
+            long[] result = new long[users];
+            for (int i = 0; i < users; i++) result[i] = ids.get(i).get();
+            return result;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    static String email(int n) {
+        return "load" + n + "@loadtest.local";
+    }
+
+    static long parseId(String json) {
+        Matcher m = ID.matcher(json);
+        if (!m.find()) throw new IllegalStateException("no id in response: " + json);
+        return Long.parseLong(m.group(1));
+    }
+
+    private static HttpRequest loginRequest(String baseUrl, String email, String password) {
+        return post(baseUrl + "/api/auth/login", "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    /** One closed-loop client; owns its recorders and the expenses it created. */
+    private static final class Worker {
+        final LatencyRecorder[] recorders = new LatencyRecorder[Op.values().length];
+        private final HttpClient client;
+        private final String baseUrl;
+        private final long[] userIds;
+        private final String password;
+        private final int days;
+        private final double aiUnique;
+        private final int[] cumulative;
+        private final Deque<long[]> created = new ArrayDeque<>(); // {expenseId, userId}
+
+        Worker(HttpClient client, String baseUrl, long[] userIds, String password, int days, double aiUnique,
+               int[] weights) {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.userIds = userIds;
+            this.password = password;
+            this.days = days;
+            this.aiUnique = aiUnique;
+            this.cumulative = new int[weights.length];
+            int sum = 0;
+            for (int i = 0; i < weights.length; i++) {
+                sum += weights[i];
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < recorders.length; i++) recorders[i] = new LatencyRecorder();
+        }
+
+        void next() {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            int pick = rnd.nextInt(cumulative[cumulative.length - 1]);
+            Op op = Op.values()[0];
+            for (Op o : Op.values()) {
+                if (pick < cumulative[o.ordinal()]) {
+                    op = o;
+                    break;
+                }
+            }
+            // Nothing of our own to change yet: write one first
+            if ((op == Op.UPDATE || op == Op.DELETE) && created.isEmpty()) op = Op.CREATE;
+
+            int userIndex = rnd.nextInt(userIds.length);
+            long userId = userIds[userIndex];
+            String api = baseUrl + "/api/expenses";
+            switch (op) {
+                case LIST -> send(op, get(api + "?userId=" + userId + "&limit=50"));
+                case FILTER -> {
+                    LocalDate to = LocalDate.now().minusDays(rnd.nextInt(days));
+                    String sort = rnd.nextBoolean() ? "date_desc" : "amount_desc";
+                    send(op, get(api + "?userId=" + userId + "&from=" + to.minusDays(90) + "&to=" + to
+                            + "&minAmount=" + rnd.nextInt(50) + "&sort=" + sort + "&limit=50"));
+                }
+                case SUMMARY -> {
+                    LocalDate from = LocalDate.now().minusDays(rnd.nextInt(days));
+                    send(op, get(api + "/summary?userId=" + userId + "&from=" + from + "&to=" + from.plusDays(180)));
+                }
+                case SEARCH -> send(op, get(api + "/search?userId=" + userId + "&q="
+                        + WORDS[rnd.nextInt(WORDS.length)] + "&limit=20"));
+                case DETAIL -> {
+                    long[] own = created.peekLast();
+                    if (own != null) {
+                        send(op, get(api + "/" + own[0]));
+                    } else {
+                        send(op, get(api + "?userId=" + userId + "&limit=1"));
+                    }
+                }
+                case CATEGORIES -> send(op, get(baseUrl + "/api/categories"));
+                case LOGIN -> send(op, loginRequest(baseUrl, email(userIndex), password));
+                case AI -> {
+                    // Unique titles miss the rules and the cache, so they reach the (stub) LLM
+                    String title = rnd.nextDouble() < aiUnique
+                            ? "load item " + SEQ.incrementAndGet()
+                            : "load item " + rnd.nextInt(100);
+                    send(op, post(baseUrl + "/api/ai/suggest-category",
+                            "{\"title\":\"" + title + "\",\"notes\":\"synthetic\"}"));
+                }
+                case CREATE -> {
+                    String body = send(op, post(api, expenseJson(userId, rnd)));
+                    if (body != null) {
+                        created.addLast(new long[]{parseId(body), userId});
+                        if (created.size() > 100) created.removeFirst();
+                    }
+                }
+                case UPDATE -> {
+                    long[] own = created.peekLast();
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(api + "/" + own[0]))
+                            .timeout(Duration.ofSeconds(60))
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(expenseJson(own[1], rnd), StandardCharsets.UTF_8))
+                            .build();
+                    send(op, request);
+                }
+                case DELETE -> {
+                    long[] own = created.removeFirst();
+                    send(op, HttpRequest.newBuilder(URI.create(api + "/" + own[0]))
+                            .timeout(Duration.ofSeconds(60)).DELETE().build());
+                }
+            }
+        }
+
+        private String expenseJson(long userId, ThreadLocalRandom rnd) {
+            return String.format(Locale.ROOT,
+                    "{\"title\":\"%s %d\",\"amount\":%d.%02d,\"category\":\"%s\",\"expenseDate\":\"%s\",\"notes\":\"load\",\"userId\":%d}",
+                    WORDS[rnd.nextInt(WORDS.length)], SEQ.incrementAndGet(), rnd.nextInt(1, 500), rnd.nextInt(100),
+                    CATEGORIES[rnd.nextInt(CATEGORIES.length)], LocalDate.now().minusDays(rnd.nextInt(30)), userId);
+        }
+
+        /** Response body on success, null on an error (which is counted). */
+        private String send(Op op, HttpRequest request) {
+            LatencyRecorder rec = recorders[op.ordinal()];
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() >= 400) {
+                    rec.error();
+                    return null;
+                }
+                rec.record(System.nanoTime() - start);
+                return response.body();
+            } catch (IOException e) {
+                rec.error();
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.expenses.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the app --runs times and measures, per run, the time from process
+ * start to the first 200 from --url (time-to-first-request) and the resident
+ * set size right after it (VmRSS from /proc, Linux only; -1 elsewhere).
+ *
+ * <pre>
+ * java -cp loadtest/target/loadtest.jar com.example.expenses.loadtest.StartupBenchmark --label fast \
+ *      --workdir target/app --url http://localhost:8091/actuator/info \
+ *      --cmd "java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar expenses-tracker-0.0.1-SNAPSHOT.jar --server.port=8091"
+ * </pre>
+ * Results are written as one JSON object per label (appended to --out when
+ * given) with the min, median and max of both measurements.
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] argv) throws Exception {
+        Args args = new Args(argv);
+        String label = args.get("label", "run");
+        List<String> cmd = Arrays.asList(args.get("cmd", "java -jar target/expenses-tracker-0.0.1-SNAPSHOT.jar").trim().split("\\s+"));
+        File workdir = new File(args.get("workdir", "."));
+        URI url = URI.create(args.get("url", "http://localhost:8081/actuator/info"));
+        int runs = args.getInt("runs", 5);
+        int timeoutS = args.getInt("timeout-s", 120);
+        String out = args.get("out", null);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(500)).build();
+        HttpRequest probe = HttpRequest.newBuilder(url).timeout(Duration.ofSeconds(5)).GET().build();
+        long[] ttfr = new long[runs];
+        long[] rss = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            Process process = new ProcessBuilder(cmd)
+                    .directory(workdir)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            long started = System.nanoTime();
+            try {
+                ttfr[i] = waitForFirstRequest(client, probe, process, started, timeoutS) / 1_000_000;
+                rss[i] = rssKb(process.pid());
+                System.err.printf(Locale.ROOT, "%s run %d: %d ms, %d kB%n", label, i + 1, ttfr[i], rss[i]);
+            } finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) process.destroyForcibly().waitFor();
+            }
+        }
+
+        String json = String.format(Locale.ROOT,
+                "{\"label\":\"%s\",\"runs\":%d,\"url\":\"%s\",\"timeToFirstRequestMs\":%s,\"rssMb\":%s}",
+                label, runs, url, stats(ttfr, 1), stats(rss, 1024));
+        System.out.println(json);
+        if (out != null) {
+            Files.writeString(Path.of(out), json + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private static long waitForFirstRequest(HttpClient client, HttpRequest probe, Process process, long started,
+                                            int timeoutS) throws InterruptedException {
+        long deadline = started + TimeUnit.SECONDS.toNanos(timeoutS);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("app exited with " + process.exitValue() + " before answering");
+            }
+            try {
+                HttpResponse<Void> response = client.send(probe, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) return System.nanoTime() - started;
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("no 200 from " + probe.uri() + " within " + timeoutS + " s");
+    }
+
+    private static long rssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+
+    private static String stats(long[] values, double divisor) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        double median = n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2.0;
+        return String.format(Locale.ROOT, "{\"min\":%.1f,\"median\":%.1f,\"max\":%.1f}",
+                sorted[0] / divisor, median / divisor, sorted[n - 1] / divisor);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.expenses.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the OpenAI Chat Completions endpoint. Point the app at
+ * it with OPENAI_BASE_URL=http://localhost:PORT/v1 (and any OPENAI_API_KEY).
+ * Every request is answered after a fixed latency (plus up to --jitter-ms of
+ * uniform jitter) with a one-word category; numbered batch prompts
+ * ("1. Title: ...") get one "n: category" line per item. A fraction
+ * --error-rate of requests fail with HTTP 500 after the same latency.
+ * GET /stats reports how many completion calls, items and errors were served.
+ *
+ * <pre>
+ * java -cp loadtest/target/loadtest.jar com.example.expenses.loadtest.StubLlmServer --port 9099 --latency-ms 2000 \
+ *      --jitter-ms 500 --error-rate 0.1
+ * </pre>
+ */
+public class StubLlmServer {
+
+    // Item numbers at the start of the (JSON-escaped) user message or after an escaped newline
+    private static final Pattern ITEM = Pattern.compile("(?:\"|\\\\n)(\\d+)\\. Title:");
+
+    private final HttpServer server;
+    private final int latencyMs;
+    private final int jitterMs;
+    private final double errorRate;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public StubLlmServer(int port, int latencyMs, int jitterMs, double errorRate) throws IOException {
+        this.latencyMs = latencyMs;
+        this.jitterMs = Math.max(0, jitterMs);
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext("/v1/chat/completions", this::complete);
+        server.createContext("/stats", this::stats);
+        // Unbounded pool: the stub must never be the bottleneck of the system under test
+        server.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long items() {
+        return items.get();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    private void complete(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String request;
+        try (InputStream in = exchange.getRequestBody()) {
+            request = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        StringBuilder content = new StringBuilder();
+        Matcher m = ITEM.matcher(request);
+        int n = 0;
+        while (m.find()) {
+            if (n++ > 0) content.append("\\n");
+            content.append(m.group(1)).append(": misc");
+        }
+        if (n == 0) {
+            content.append("misc");
+            n = 1;
+        }
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        sleep(latencyMs + (jitterMs > 0 ? rnd.nextInt(jitterMs + 1) : 0));
+        if (rnd.nextDouble() < errorRate) {
+            errors.incrementAndGet();
+            send(exchange, 500, "{\"error\":{\"message\":\"stub failure\"}}".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        items.addAndGet(n);
+        byte[] body = ("{\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"}}]}")
+                .getBytes(StandardCharsets.UTF_8);
+        send(exchange, 200, body);
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        byte[] body = ("{\"requests\":" + requests.get() + ",\"items\":" + items.get() + ",\"errors\":" + errors.get() + "}")
+                .getBytes(StandardCharsets.UTF_8);
+        send(exchange, 200, body);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(int ms) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] argv) throws IOException {
+        Args args = new Args(argv);
+        int port = args.getInt("port", 9099);
+        int latencyMs = args.getInt("latency-ms", 2000);
+        int jitterMs = args.getInt("jitter-ms", 0);
+        double errorRate = args.getDouble("error-rate", 0.0);
+        StubLlmServer stub = new StubLlmServer(port, latencyMs, jitterMs, errorRate);
+        stub.start();
+        System.out.println("stub LLM listening on :" + port + " (latency " + latencyMs + " ms, jitter " + jitterMs
+                + " ms, error rate " + errorRate + ")");
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.expenses.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop expense creation: every worker POSTs new expenses back to back.
+ * Point --path at /api/expenses (synchronous, one commit per request) or at
+ * /api/expenses/ingest (write-behind queue). For the queue the run also waits
+ * until the queue is empty and reports "committedThroughput" including that
+ * drain, so accepted-but-unwritten work is not counted as throughput.
+ *
+ * <pre>
+ * java -cp loadtest/target/loadtest.jar com.example.expenses.loadtest.WriteDriver \
+ *      --base-url http://localhost:8081 --path /api/expenses/ingest --concurrency 64 --duration-s 30 --label ingest
+ * </pre>
+ */
+public class WriteDriver {
+
+    private static final AtomicLong SEQ = new AtomicLong();
+    private static final String[] CATEGORIES = {"grocery", "transit", "utilities", "treat", "health", "shopping"};
+
+    public static void main(String[] argv) throws Exception {
+        Args args = new Args(argv);
+        String baseUrl = args.get("base-url", "http://localhost:8081");
+        String path = args.get("path", "/api/expenses");
+        int concurrency = args.getInt("concurrency", 64);
+        int durationS = args.getInt("duration-s", 30);
+        int users = args.getInt("users", 100);
+        String label = args.get("label", path);
+        String out = args.get("out", null);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationS).toNanos();
+
+        List<Thread> workers = new ArrayList<>();
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            LatencyRecorder rec = new LatencyRecorder();
+            recorders.add(rec);
+            Thread t = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    send(client, createRequest(baseUrl + path, users), rec);
+                }
+            }, "write-" + i);
+            t.setDaemon(true);
+            workers.add(t);
+        }
+        long started = System.nanoTime();
+        workers.forEach(Thread::start);
+        for (Thread t : workers) t.join();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        LatencyRecorder all = new LatencyRecorder();
+        recorders.forEach(all::merge);
+
+        double committedSeconds = seconds;
+        if (path.contains("ingest")) {
+            waitForDrain(client, baseUrl + path + "/stats");
+            committedSeconds = (System.nanoTime() - started) / 1e9;
+        }
+        String json = String.format(Locale.ROOT,
+                "{\"label\":\"%s\",\"path\":\"%s\",\"concurrency\":%d,\"durationS\":%.1f,\"committedThroughput\":%.2f,\"write\":%s}",
+                label, path, concurrency, seconds, all.count() / committedSeconds, all.toJson(seconds));
+        System.out.println(json);
+        if (out != null) {
+            Files.writeString(Path.of(out), json + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private static HttpRequest createRequest(String url, int users) {
+        long n = SEQ.incrementAndGet();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        String body = String.format(Locale.ROOT,
+                "{\"title\":\"write %d\",\"amount\":%d.%02d,\"category\":\"%s\",\"expenseDate\":\"%s\",\"userId\":%d,\"accountId\":1}",
+                n, rnd.nextInt(1, 500), rnd.nextInt(100), CATEGORIES[(int) (n % CATEGORIES.length)],
+                LocalDate.now().minusDays(rnd.nextInt(365)), rnd.nextInt(users) + 1);
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private static void waitForDrain(HttpClient client, String statsUrl) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(statsUrl)).GET().build();
+        while (true) {
+            String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            if (body.contains("\"queued\":0")) return;
+            Thread.sleep(50);
+        }
+    }
+
+    private static void send(HttpClient client, HttpRequest request, LatencyRecorder rec) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() >= 400) {
+                rec.error();
+                return;
+            }
+            rec.record(System.nanoTime() - start);
+        } catch (IOException e) {
+            rec.error();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
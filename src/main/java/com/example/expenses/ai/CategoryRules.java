@@ -0,0 +1,185 @@
+package com.example.expenses.ai;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Data-driven keyword rules for the rule-based categorizer. Rules are grouped
+ * in named sections and evaluated in file order; the first rule whose
+ * condition holds wins, so the order in the file is the priority. All
+ * keywords of a section are compiled into one KeywordMatcher, so the text is
+ * scanned once per lookup regardless of the number of rules.
+ *
+ * File format (see ai/category-rules.txt):
+ * <pre>
+ * [section]
+ * category = keyword | keyword+required!excluded | ...
+ * </pre>
+ * A rule holds when any "|" alternative holds; an alternative holds when its
+ * first keyword and every "+" keyword occur and no "!" keyword occurs.
+ */
+public final class CategoryRules {
+
+    private final Map<String, RuleSet> sections;
+
+    private CategoryRules(Map<String, RuleSet> sections) {
+        this.sections = sections;
+    }
+
+    /** Category of the first matching rule in the section, or null when none matches. */
+    public String firstMatch(String section, CharSequence text) {
+        RuleSet rules = sections.get(section);
+        if (rules == null) throw new IllegalArgumentException("unknown rule section: " + section);
+        return rules.firstMatch(text);
+    }
+
+    public int keywordCount(String section) {
+        RuleSet rules = sections.get(section);
+        return rules == null ? 0 : rules.matcher.keywordCount();
+    }
+
+    public static CategoryRules load(InputStream in) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            Map<String, List<String[]>> raw = new LinkedHashMap<>();
+            List<String[]> current = null;
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                String t = line.trim();
+                if (t.isEmpty() || t.startsWith("#")) continue;
+                if (t.startsWith("[") && t.endsWith("]")) {
+                    current = raw.computeIfAbsent(t.substring(1, t.length() - 1).trim(), k -> new ArrayList<>());
+                    continue;
+                }
+                int eq = t.indexOf('=');
+                if (current == null || eq <= 0) {
+                    throw new IllegalArgumentException("line " + lineNo + ": expected [section] or 'category = keywords'");
+                }
+                current.add(new String[]{t.substring(0, eq).trim(), t.substring(eq + 1).trim()});
+            }
+            Map<String, RuleSet> sections = new HashMap<>();
+            raw.forEach((name, rules) -> sections.put(name, RuleSet.compile(rules)));
+            return new CategoryRules(sections);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compiled rules of one section: keyword ids per alternative, the shared
+     * automaton, and for each keyword the rules it can trigger. Every
+     * alternative requires at least one keyword, so only rules reachable from
+     * the keywords actually found are evaluated.
+     */
+    static final class RuleSet {
+        final KeywordMatcher matcher;
+        final String[] categories;
+        final int[][][] required;   // rule -> alternative -> keyword ids
+        final int[][][] excluded;
+        final int[][] rulesByKeyword; // keyword id -> rule indexes requiring it, ascending
+
+        private RuleSet(KeywordMatcher matcher, String[] categories, int[][][] required, int[][][] excluded) {
+            this.matcher = matcher;
+            this.categories = categories;
+            this.required = required;
+            this.excluded = excluded;
+            List<List<Integer>> byKeyword = new ArrayList<>();
+            for (int k = 0; k < matcher.keywordCount(); k++) byKeyword.add(new ArrayList<>());
+            for (int r = 0; r < required.length; r++) {
+                for (int[] alternative : required[r]) {
+                    for (int id : alternative) {
+                        List<Integer> rules = byKeyword.get(id);
+                        if (rules.isEmpty() || rules.get(rules.size() - 1) != r) rules.add(r);
+                    }
+                }
+            }
+            this.rulesByKeyword = new int[byKeyword.size()][];
+            for (int k = 0; k < byKeyword.size(); k++) {
+                rulesByKeyword[k] = byKeyword.get(k).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        static RuleSet compile(List<String[]> rules) {
+            Map<String, Integer> ids = new LinkedHashMap<>();
+            String[] categories = new String[rules.size()];
+            int[][][] required = new int[rules.size()][][];
+            int[][][] excluded = new int[rules.size()][][];
+            for (int r = 0; r < rules.size(); r++) {
+                categories[r] = rules.get(r)[0];
+                String[] alternatives = rules.get(r)[1].split("\\|");
+                required[r] = new int[alternatives.length][];
+                excluded[r] = new int[alternatives.length][];
+                for (int a = 0; a < alternatives.length; a++) {
+                    List<Integer> req = new ArrayList<>();
+                    List<Integer> exc = new ArrayList<>();
+                    List<Integer> target = req;
+                    StringBuilder term = new StringBuilder();
+                    String alt = alternatives[a].trim();
+                    for (int i = 0; i <= alt.length(); i++) {
+                        char c = i < alt.length() ? alt.charAt(i) : '+';
+                        if (c == '+' || c == '!') {
+                            String k = term.toString().trim().toLowerCase(Locale.ROOT);
+                            if (k.isEmpty()) throw new IllegalArgumentException("empty keyword in rule for " + categories[r]);
+                            target.add(ids.computeIfAbsent(k, x -> ids.size()));
+                            term.setLength(0);
+                            target = (c == '+') ? req : exc;
+                        } else {
+                            term.append(c);
+                        }
+                    }
+                    required[r][a] = req.stream().mapToInt(Integer::intValue).toArray();
+                    excluded[r][a] = exc.stream().mapToInt(Integer::intValue).toArray();
+                }
+            }
+            return new RuleSet(new KeywordMatcher(new ArrayList<>(ids.keySet())), categories, required, excluded);
+        }
+
+        String firstMatch(CharSequence text) {
+            long[] found = matcher.match(text);
+            int best = Integer.MAX_VALUE;
+            for (int w = 0; w < found.length; w++) {
+                long bits = found[w];
+                while (bits != 0) {
+                    int id = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    for (int r : rulesByKeyword[id]) {
+                        if (r >= best) break;
+                        if (ruleHolds(found, r)) {
+                            best = r;
+                            break;
+                        }
+                    }
+                }
+            }
+            return best == Integer.MAX_VALUE ? null : categories[best];
+        }
+
+        private boolean ruleHolds(long[] found, int r) {
+            for (int a = 0; a < required[r].length; a++) {
+                if (holds(found, required[r][a], excluded[r][a])) return true;
+            }
+            return false;
+        }
+
+        private static boolean holds(long[] found, int[] req, int[] exc) {
+            for (int id : req) {
+                if (!KeywordMatcher.contains(found, id)) return false;
+            }
+            for (int id : exc) {
+                if (KeywordMatcher.contains(found, id)) return false;
+            }
+            return true;
+        }
+    }
+}
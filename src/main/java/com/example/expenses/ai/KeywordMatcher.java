@@ -0,0 +1,146 @@
+package com.example.expenses.ai;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over a fixed keyword list, compiled to a dense
+ * transition table. One pass over the text reports every keyword that occurs
+ * anywhere in it (substring semantics, like String.contains), so the cost is
+ * linear in the text length however many keywords there are.
+ *
+ * Keywords are expected in lower case; ASCII letters in the text are folded
+ * to lower case on the fly, so callers need not copy the input.
+ */
+public final class KeywordMatcher {
+
+    private final int keywordCount;
+    private final int[] charClass;    // char (< 128) -> alphabet index; 0 = not in any keyword
+    private final int alphabetSize;
+    private final int[] delta;        // state * alphabetSize + class -> next state
+    private final int[][] output;     // state -> keyword ids ending here (via failure links), or null
+
+    public KeywordMatcher(List<String> keywords) {
+        this.keywordCount = keywords.size();
+
+        charClass = new int[128];
+        int classes = 1;
+        for (String k : keywords) {
+            for (int i = 0; i < k.length(); i++) {
+                char c = k.charAt(i);
+                if (c >= 128) throw new IllegalArgumentException("keywords must be ASCII: " + k);
+                if (charClass[c] == 0) charClass[c] = classes++;
+            }
+        }
+        alphabetSize = classes;
+
+        // 1. Trie
+        List<int[]> next = new ArrayList<>();
+        List<int[]> out = new ArrayList<>();
+        next.add(newRow());
+        out.add(null);
+        for (int id = 0; id < keywords.size(); id++) {
+            String k = keywords.get(id);
+            if (k.isEmpty()) throw new IllegalArgumentException("empty keyword");
+            int state = 0;
+            for (int i = 0; i < k.length(); i++) {
+                int cls = charClass[k.charAt(i)];
+                int s = next.get(state)[cls];
+                if (s <= 0) {
+                    s = next.size();
+                    next.get(state)[cls] = s;
+                    next.add(newRow());
+                    out.add(null);
+                }
+                state = s;
+            }
+            out.set(state, with(out.get(state), id));
+        }
+
+        // 2. Failure links, breadth first, folded into a complete DFA
+        int states = next.size();
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int[] root = next.get(0);
+        for (int cls = 0; cls < alphabetSize; cls++) {
+            if (root[cls] > 0) {
+                fail[root[cls]] = 0;
+                queue.add(root[cls]);
+            } else {
+                root[cls] = 0;
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            out.set(state, union(out.get(state), out.get(fail[state])));
+            int[] row = next.get(state);
+            for (int cls = 0; cls < alphabetSize; cls++) {
+                int s = row[cls];
+                if (s > 0) {
+                    fail[s] = next.get(fail[state])[cls];
+                    queue.add(s);
+                } else {
+                    row[cls] = next.get(fail[state])[cls];
+                }
+            }
+        }
+        // Class 0 (characters no keyword uses) always resets to the root
+        delta = new int[states * alphabetSize];
+        output = new int[states][];
+        for (int s = 0; s < states; s++) {
+            int[] row = next.get(s);
+            row[0] = 0;
+            System.arraycopy(row, 0, delta, s * alphabetSize, alphabetSize);
+            output[s] = out.get(s);
+        }
+    }
+
+    public int keywordCount() {
+        return keywordCount;
+    }
+
+    /** Bit set (one bit per keyword id) of the keywords occurring in text. */
+    public long[] match(CharSequence text) {
+        long[] found = new long[(keywordCount + 63) >>> 6];
+        if (text == null) return found;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') c = (char) (c + ('a' - 'A'));
+            int cls = c < 128 ? charClass[c] : 0;
+            state = delta[state * alphabetSize + cls];
+            int[] hits = output[state];
+            if (hits != null) {
+                for (int id : hits) found[id >>> 6] |= 1L << id;
+            }
+        }
+        return found;
+    }
+
+    public static boolean contains(long[] found, int id) {
+        return (found[id >>> 6] & (1L << id)) != 0;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private static int[] with(int[] ids, int id) {
+        if (ids == null) return new int[]{id};
+        int[] r = Arrays.copyOf(ids, ids.length + 1);
+        r[ids.length] = id;
+        return r;
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        if (b == null) return a;
+        if (a == null) return b.clone();
+        int[] r = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, r, a.length, b.length);
+        return r;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.expenses.ai;
+
+import com.example.expenses.metrics.AiMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker for outbound LLM calls. Tracks the last
+ * {@code ai.breaker.window-size} calls; once at least
+ * {@code ai.breaker.minimum-calls} of them are in and the share of failures
+ * (errors, timeouts and calls slower than {@code ai.breaker.slow-call})
+ * reaches {@code ai.breaker.failure-rate}, it opens and every suggestion goes
+ * straight to the rules for {@code ai.breaker.open-for}. After that one probe
+ * call is let through: success closes the breaker, failure opens it again.
+ */
+@Lazy
+@Component
+public class LlmCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmCircuitBreaker.class);
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRate;
+    private final long slowCallNanos;
+    private final long openForNanos;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+    private long timesOpened;
+
+    public LlmCircuitBreaker(AiMetrics metrics,
+                             @Value("${ai.breaker.window-size:20}") int windowSize,
+                             @Value("${ai.breaker.minimum-calls:10}") int minimumCalls,
+                             @Value("${ai.breaker.failure-rate:0.5}") double failureRate,
+                             @Value("${ai.breaker.slow-call:2s}") Duration slowCall,
+                             @Value("${ai.breaker.open-for:30s}") Duration openFor) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.failureRate = failureRate;
+        this.slowCallNanos = slowCall.toNanos();
+        this.openForNanos = openFor.toNanos();
+        metrics.watch(this);
+    }
+
+    /** Cheap check for callers deciding whether to queue a lookup at all; takes no permit. */
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> !probing;
+            case OPEN -> System.nanoTime() - openedAt >= openForNanos;
+        };
+    }
+
+    /**
+     * Permit for one outbound call; every granted permit must be followed by
+     * {@link #record}. In the half-open state only one probe holds a permit.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openForNanos) {
+            state = State.HALF_OPEN;
+            probing = false;
+            log.info("LLM circuit half-open, sending a probe");
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (probing) return false;
+                probing = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void record(boolean success, long nanos) {
+        boolean failed = !success || nanos > slowCallNanos;
+        switch (state) {
+            case HALF_OPEN:
+                probing = false;
+                if (failed) {
+                    log.warn("LLM probe failed");
+                    open();
+                } else {
+                    reset();
+                    state = State.CLOSED;
+                    log.info("LLM circuit closed");
+                }
+                break;
+            case CLOSED:
+                if (calls == window.length) {
+                    if (window[next]) failures--;
+                } else {
+                    calls++;
+                }
+                window[next] = failed;
+                if (failed) failures++;
+                next = (next + 1) % window.length;
+                if (calls >= minimumCalls && failures >= failureRate * calls) {
+                    log.warn("LLM circuit tripping after {}/{} failed or slow calls", failures, calls);
+                    open();
+                }
+                break;
+            default:
+                // Late result of a call that started before the breaker opened
+                break;
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        timesOpened++;
+        log.warn("LLM circuit open for {} ms", openForNanos / 1_000_000);
+        reset();
+    }
+
+    private void reset() {
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("state", state.name());
+        m.put("windowCalls", calls);
+        m.put("windowFailures", failures);
+        m.put("timesOpened", timesOpened);
+        m.put("windowSize", window.length);
+        m.put("minimumCalls", minimumCalls);
+        m.put("failureRate", failureRate);
+        m.put("slowCallMs", slowCallNanos / 1_000_000);
+        m.put("openForMs", openForNanos / 1_000_000);
+        return m;
+    }
+}
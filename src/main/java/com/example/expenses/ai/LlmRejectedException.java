@@ -0,0 +1,22 @@
+package com.example.expenses.ai;
+
+/**
+ * A lookup that never reached the LLM: the circuit breaker is open or every
+ * outbound call slot is taken. Thrown on the hot path, so it carries no stack
+ * trace.
+ */
+public class LlmRejectedException extends RuntimeException {
+
+    public enum Reason { CIRCUIT_OPEN, BULKHEAD_FULL }
+
+    private final Reason reason;
+
+    public LlmRejectedException(Reason reason) {
+        super(reason.name(), null, false, false);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
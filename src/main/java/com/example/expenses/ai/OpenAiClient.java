@@ -0,0 +1,172 @@
+package com.example.expenses.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Thin client for the OpenAI Chat Completions endpoint. Builds the classifier
+ * prompt for one expense or a numbered list of them and extracts the labels.
+ * Endpoint, key and model come from OPENAI_BASE_URL, OPENAI_API_KEY and
+ * OPENAI_MODEL, so a local stub can stand in for the real API.
+ */
+@Lazy
+@Component
+public class OpenAiClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern NUMBERED = Pattern.compile("^\\s*(\\d+)\\s*[:.)\\-]\\s*(.*)$");
+
+    private static final String INSTRUCTION = "You are an expense category classifier. Suggest a concise, lowercase category (1-2 words) for the expense.\n" +
+            "Examples:\n" +
+            "'laptop' -> electronics\n" +
+            "'table' -> furniture\n" +
+            "'rent payment' -> housing\n" +
+            "'apple 1kg' -> grocery\n" +
+            "'chocolate' -> treats\n" +
+            "'bus ticket' -> transit\n";
+
+    // One client for all requests: it keeps its connection pool (and TLS sessions) to the LLM endpoint warm
+    private final HttpClient client;
+
+    public OpenAiClient(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                        @Qualifier("applicationTaskExecutor") ObjectProvider<Executor> taskExecutor) {
+        HttpClient.Builder builder = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5));
+        Executor executor = taskExecutor.getIfAvailable();
+        if (virtualThreads && executor != null) {
+            // Spring Boot backs applicationTaskExecutor with virtual threads in this mode
+            builder.executor(executor);
+        }
+        this.client = builder.build();
+    }
+
+    public boolean isConfigured() {
+        return StringUtils.hasText(System.getenv("OPENAI_API_KEY"));
+    }
+
+    /** Category for a single expense, or "" when the model gave nothing usable. */
+    public CompletableFuture<String> classify(String title, String notes) {
+        String user = "Title: '" + safe(title) + "'\nNotes: '" + safe(notes) + "'";
+        return complete(INSTRUCTION + "Return ONLY the category name in lowercase.", user, 4)
+                .thenApply(OpenAiClient::sanitize);
+    }
+
+    /**
+     * Categories for several expenses in one request, positionally aligned with
+     * the input. Items the model skipped come back as "".
+     */
+    public CompletableFuture<List<String>> classifyAll(List<String> titles, List<String> notes) {
+        int n = titles.size();
+        StringBuilder user = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            user.append(i + 1).append(". Title: '").append(safe(titles.get(i)))
+                    .append("' Notes: '").append(safe(notes.get(i))).append("'\n");
+        }
+        String instruction = INSTRUCTION +
+                "You will get a numbered list of expenses. Reply with exactly one line per expense in the form " +
+                "'<number>: <category>', in the same order, and nothing else.";
+        return complete(instruction, user.toString(), 8 * n + 8).thenApply(content -> parseNumbered(content, n));
+    }
+
+    private static List<String> parseNumbered(String content, int n) {
+        String[] labels = new String[n];
+        Arrays.fill(labels, "");
+        for (String line : content.split("\\r?\\n")) {
+            Matcher m = NUMBERED.matcher(line);
+            if (!m.matches()) continue;
+            int idx = Integer.parseInt(m.group(1)) - 1;
+            if (idx >= 0 && idx < n) {
+                labels[idx] = sanitize(m.group(2));
+            }
+        }
+        return new ArrayList<>(Arrays.asList(labels));
+    }
+
+    /**
+     * Sends the request without holding a thread while it waits; the future
+     * fails with an IOException on a non-2xx reply and with an
+     * HttpTimeoutException once the request timeout passes.
+     */
+    private CompletableFuture<String> complete(String system, String user, int maxTokens) {
+        String baseUrl = System.getenv().getOrDefault("OPENAI_BASE_URL", "https://api.openai.com/v1");
+        String model = System.getenv().getOrDefault("OPENAI_MODEL", "gpt-4o-mini");
+        String payload = "{\n" +
+                "  \"model\": " + jsonString(model) + ",\n" +
+                "  \"messages\": [\n" +
+                "    {\"role\": \"system\", \"content\": " + jsonString(system) + "},\n" +
+                "    {\"role\": \"user\", \"content\": " + jsonString(user) + "}\n" +
+                "  ],\n" +
+                "  \"temperature\": 0,\n" +
+                "  \"max_tokens\": " + maxTokens + "\n" +
+                "}";
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/chat/completions"))
+                .timeout(Duration.ofSeconds(15))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + System.getenv("OPENAI_API_KEY"))
+                .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new CompletionException(new IOException("OpenAI returned HTTP " + response.statusCode()));
+            }
+            return extractOpenAIText(response.body());
+        });
+    }
+
+    private static String safe(String s) {
+        return s == null ? "" : s.replace("\n", " ").trim();
+    }
+
+    private static String jsonString(String s) {
+        String escaped = s
+                .replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n");
+        return "\"" + escaped + "\"";
+    }
+
+    private static String extractOpenAIText(String json) {
+        try {
+            JsonNode root = MAPPER.readTree(json);
+            JsonNode node = root.at("/choices/0/message/content");
+            if (node != null && node.isTextual() && StringUtils.hasText(node.asText())) {
+                return node.asText();
+            }
+            return "";
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private static String sanitize(String s) {
+        if (!StringUtils.hasText(s)) return "";
+        String v = s.replace("\r", " ").replace("\n", " ").trim();
+        // keep it concise: first 4 words maximum
+        String[] parts = v.split("\\s+");
+        if (parts.length <= 4) return v;
+        return String.join(" ", parts[0], parts[1], parts[2], parts[3]);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.expenses.ai;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Offline categorizer backed by the keyword rules in {@code ai.rules.location}:
+ * hard title rules that override the LLM, a fallback guess, and the synonym
+ * normalization applied to every suggested category.
+ */
+@Lazy
+@Component
+public class RuleBasedCategorizer {
+
+    private final CategoryRules rules;
+
+    public RuleBasedCategorizer(@Value("${ai.rules.location:classpath:ai/category-rules.txt}") Resource rulesFile) throws IOException {
+        try (InputStream in = rulesFile.getInputStream()) {
+            this.rules = CategoryRules.load(in);
+        }
+    }
+
+    /** Category forced by the title alone, or null. */
+    public String fromTitle(String title) {
+        return rules.firstMatch("title", title);
+    }
+
+    /** Best keyword guess for the text, "misc" when nothing matches. */
+    public String guess(String text) {
+        String category = rules.firstMatch("guess", text);
+        return category != null ? category : "misc";
+    }
+
+    public static String normalize(String category) {
+        String c = (category == null ? "" : category).trim().toLowerCase();
+        // Basic synonym normalization only
+        if (c.equals("food") || c.equals("groceries")) c = "grocery";
+        if (c.equals("transportation")) c = "transit";
+        if (c.equals("healthcare") || c.equals("medicine")) c = "health";
+        if (!StringUtils.hasText(c)) return "misc";
+        return c;
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.expenses.ai;
+
+import com.example.expenses.metrics.AiMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces LLM category lookups. Concurrent requests for the same cache key
+ * share one in-flight future (single-flight), and distinct keys arriving within
+ * {@code ai.batch.window} are classified together in one Chat Completions call
+ * of at most {@code ai.batch.max-size} items. A window of 0 sends every key on
+ * its own but keeps the single-flight behaviour.
+ * <p>
+ * Calls go out with the HTTP client's async API, so no thread waits on the
+ * provider. At most {@code ai.llm.max-in-flight} calls are outstanding at once
+ * (the bulkhead) and the {@link LlmCircuitBreaker} has to grant each one; a
+ * batch refused by either fails at once with {@link LlmRejectedException}.
+ */
+@Lazy
+@Component
+public class SuggestionBatcher {
+
+    private final OpenAiClient client;
+    private final AiMetrics metrics;
+    private final LlmCircuitBreaker breaker;
+    private final long windowNanos;
+    private final int maxSize;
+    private final int maxInFlightCalls;
+    private final Semaphore callSlots;
+
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final List<Pending> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "ai-batch-timer"));
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder batchedItems = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejectedOpen = new LongAdder();
+    private final LongAdder rejectedFull = new LongAdder();
+
+    public SuggestionBatcher(OpenAiClient client,
+                             AiMetrics metrics,
+                             LlmCircuitBreaker breaker,
+                             @Value("${ai.batch.window:5ms}") Duration window,
+                             @Value("${ai.batch.max-size:20}") int maxSize,
+                             @Value("${ai.llm.max-in-flight:8}") int maxInFlightCalls) {
+        this.client = client;
+        this.metrics = metrics;
+        this.breaker = breaker;
+        this.windowNanos = window.toNanos();
+        this.maxSize = Math.max(1, maxSize);
+        this.maxInFlightCalls = Math.max(1, maxInFlightCalls);
+        this.callSlots = new Semaphore(this.maxInFlightCalls);
+        metrics.watch(this);
+    }
+
+    /**
+     * Raw category from the model for the expense ("" when it gave none). The
+     * future completes exceptionally when the outbound call fails.
+     */
+    public CompletableFuture<String> suggest(String key, String title, String notes) {
+        requests.increment();
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        // Later callers with this key start a fresh lookup (by then the cache has the answer)
+        mine.whenComplete((v, e) -> inFlight.remove(key, mine));
+        enqueue(new Pending(title, notes, mine));
+        return mine;
+    }
+
+    private void enqueue(Pending p) {
+        List<Pending> ready = null;
+        synchronized (pending) {
+            pending.add(p);
+            if (pending.size() >= maxSize || windowNanos <= 0) {
+                ready = drain();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = timer.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+    }
+
+    private void flush() {
+        List<Pending> ready;
+        synchronized (pending) {
+            ready = drain();
+        }
+        if (!ready.isEmpty()) {
+            dispatch(ready);
+        }
+    }
+
+    // Caller holds the lock on pending
+    private List<Pending> drain() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<Pending> ready = new ArrayList<>(pending);
+        pending.clear();
+        return ready;
+    }
+
+    private void dispatch(List<Pending> batch) {
+        if (!callSlots.tryAcquire()) {
+            rejectedFull.increment();
+            reject(batch, LlmRejectedException.Reason.BULKHEAD_FULL);
+            return;
+        }
+        if (!breaker.tryAcquire()) {
+            callSlots.release();
+            rejectedOpen.increment();
+            reject(batch, LlmRejectedException.Reason.CIRCUIT_OPEN);
+            return;
+        }
+        calls.increment();
+        batchedItems.add(batch.size());
+        long start = System.nanoTime();
+        CompletableFuture<List<String>> call;
+        try {
+            call = send(batch);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((labels, e) -> {
+            callSlots.release();
+            long elapsed = System.nanoTime() - start;
+            breaker.record(e == null, elapsed);
+            metrics.recordLlmCall(elapsed, e == null);
+            if (e != null) {
+                failures.increment();
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                batch.forEach(p -> p.future.completeExceptionally(cause));
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(labels.get(i));
+            }
+        });
+    }
+
+    private CompletableFuture<List<String>> send(List<Pending> batch) {
+        if (batch.size() == 1) {
+            Pending p = batch.get(0);
+            return client.classify(p.title, p.notes).thenApply(List::of);
+        }
+        List<String> titles = new ArrayList<>(batch.size());
+        List<String> notes = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            titles.add(p.title);
+            notes.add(p.notes);
+        }
+        return client.classifyAll(titles, notes);
+    }
+
+    private static void reject(List<Pending> batch, LlmRejectedException.Reason reason) {
+        LlmRejectedException e = new LlmRejectedException(reason);
+        batch.forEach(p -> p.future.completeExceptionally(e));
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /** Outbound calls currently holding a bulkhead slot. */
+    public int activeCalls() {
+        return maxInFlightCalls - callSlots.availablePermits();
+    }
+
+    public Map<String, Object> stats() {
+        long c = calls.sum();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("requests", requests.sum());
+        m.put("coalesced", coalesced.sum());
+        m.put("inFlight", inFlight.size());
+        m.put("calls", c);
+        m.put("avgBatchSize", c == 0 ? 0.0 : (double) batchedItems.sum() / c);
+        m.put("failedCalls", failures.sum());
+        m.put("activeCalls", activeCalls());
+        m.put("maxInFlightCalls", maxInFlightCalls);
+        m.put("rejectedBulkheadFull", rejectedFull.sum());
+        m.put("rejectedCircuitOpen", rejectedOpen.sum());
+        m.put("windowMs", TimeUnit.NANOSECONDS.toMillis(windowNanos));
+        m.put("maxSize", maxSize);
+        return m;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private static final class Pending {
+        final String title;
+        final String notes;
+        final CompletableFuture<String> future;
+
+        Pending(String title, String notes, CompletableFuture<String> future) {
+            this.title = title;
+            this.notes = notes;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.expenses.ai;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of LLM category suggestions with a time-to-live, keyed by
+ * the normalized title + notes. Sits in front of the OpenAI call so repeated
+ * titles ("uber", "netflix", "rent") are answered from memory.
+ */
+@Lazy
+@Component
+public class SuggestionCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SuggestionCache(@Value("${ai.cache.max-entries:10000}") int maxEntries,
+                           @Value("${ai.cache.ttl:24h}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        // Access order makes iteration order least-recently-used first
+        this.entries = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > SuggestionCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static String key(String title, String notes) {
+        return normalize(title) + '\n' + normalize(notes);
+    }
+
+    private static String normalize(String s) {
+        if (s == null) return "";
+        return s.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /** Cached category for the key, or null on a miss (absent or expired). */
+    public String get(String key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            if (e != null && now - e.storedAt < ttlNanos) {
+                hits.increment();
+                return e.category;
+            }
+            if (e != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String key, String category) {
+        if (maxEntries <= 0) return;
+        Entry e = new Entry(category, System.nanoTime());
+        synchronized (entries) {
+            entries.put(key, e);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        int size = size();
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("hits", h);
+        res.put("misses", m);
+        res.put("hitRate", (h + m) == 0 ? 0.0 : (double) h / (h + m));
+        res.put("evictions", evictions.sum());
+        res.put("size", size);
+        res.put("maxEntries", maxEntries);
+        return res;
+    }
+
+    private static final class Entry {
+        final String category;
+        final long storedAt;
+
+        Entry(String category, long storedAt) {
+            this.category = category;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.expenses.budget;
+
+/**
+ * Count, mean and sum of squared deviations (m2) of the amounts in one
+ * (user, category) bucket, maintained with Welford's update so adding or
+ * removing an amount is O(1) no matter how many came before.
+ */
+final class RunningStats {
+    private long count;
+    private double mean;
+    private double m2;
+
+    RunningStats() {
+    }
+
+    RunningStats(long count, double mean, double m2) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    synchronized void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+    }
+
+    /** Reverses add(x) for a deleted or edited expense. */
+    synchronized void remove(double x) {
+        if (count <= 1) {
+            count = 0;
+            mean = 0;
+            m2 = 0;
+            return;
+        }
+        double oldMean = mean;
+        count--;
+        mean = (oldMean * (count + 1) - x) / count;
+        // Rounding can leave a tiny negative remainder
+        m2 = Math.max(0, m2 - (x - mean) * (x - oldMean));
+    }
+
+    /**
+     * Standard score of x against the current sample, or NaN while there
+     * are fewer than minSamples amounts or they are all equal.
+     */
+    synchronized double zScore(double x, long minSamples) {
+        if (count < Math.max(2, minSamples)) return Double.NaN;
+        double stddev = Math.sqrt(m2 / (count - 1));
+        return stddev > 0 ? (x - mean) / stddev : Double.NaN;
+    }
+
+    synchronized long count() {
+        return count;
+    }
+
+    synchronized double mean() {
+        return mean;
+    }
+
+    /** {count, mean, m2} read under one lock, for snapshots. */
+    synchronized Object[] row(long userId, long categoryId) {
+        return new Object[]{userId, categoryId, count, mean, m2};
+    }
+}
@@ -0,0 +1,424 @@
+package com.example.expenses.budget;
+
+import com.example.expenses.event.ExpensesChangedEvent;
+import com.example.expenses.event.ExpensesPurgedEvent;
+import com.example.expenses.model.Budget;
+import com.example.expenses.model.Expense;
+import com.example.expenses.model.SpendingAlert;
+import com.example.expenses.repository.BudgetRepository;
+import com.example.expenses.repository.ExpenseRollupRepository;
+import com.example.expenses.repository.SpendingStatsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Budget and anomaly alerts computed from the expense write stream instead of
+ * from queries, so the work per save is a few hash lookups however long the
+ * history is. For every committed ExpensesChangedEvent it
+ * <ul>
+ *   <li>moves the month-to-date total of each touched (user, category, month) bucket by the net delta and
+ *       raises BUDGET_WARNING / BUDGET_EXCEEDED when the total crosses warn-ratio or 100% of the limit;</li>
+ *   <li>keeps a running count, mean and variance of amounts per (user, category) and raises ANOMALY when a
+ *       new or edited amount lies more than anomaly.z-score standard deviations above the mean.</li>
+ * </ul>
+ * Alerts are only raised for expenses dated in the current month or later;
+ * back-dated entries and imports of history update the state silently.
+ * <p>
+ * At startup the limits come from budgets, the statistics from the
+ * spending_stats snapshot (or one aggregation over expenses when there is
+ * none) and month totals from expense_rollups. Changed statistics are written
+ * back every snapshot-interval and at shutdown; updates since the last
+ * snapshot are lost on a crash, which only nudges the anomaly baseline.
+ * When old partitions are purged the statistics still hold the purged
+ * amounts, so they are rebuilt from the tables in the background.
+ * The state is per process: with several instances each one sees only the
+ * writes it served, and POST /api/alerts/rebuild recomputes everything from
+ * the tables. Recent alerts are kept in memory (alerts.max-per-user each).
+ */
+@Component
+public class SpendingTracker {
+    private static final Logger log = LoggerFactory.getLogger(SpendingTracker.class);
+
+    private final BudgetRepository budgets;
+    private final SpendingStatsRepository repository;
+    private final Executor executor;
+    private final double anomalyZScore;
+    private final long minSamples;
+    private final BigDecimal warnRatio;
+    private final int maxAlertsPerUser;
+
+    // Swapped as a whole on (re)load, so an event never sees half-loaded maps; null until the first load
+    private volatile State state;
+
+    private final Map<Long, Deque<SpendingAlert>> alerts = new ConcurrentHashMap<>();
+    private final Map<SpendingAlert.Type, LongAdder> raised = new EnumMap<>(SpendingAlert.Type.class);
+    private final LongAdder eventsApplied = new LongAdder();
+    private final LongAdder eventsSkipped = new LongAdder();
+    private final LongAdder updateNanos = new LongAdder();
+    private volatile Instant lastSnapshotAt;
+    private volatile int lastSnapshotRows;
+
+    public SpendingTracker(BudgetRepository budgets, SpendingStatsRepository repository,
+                           @Value("${budgets.anomaly.z-score:3.0}") double anomalyZScore,
+                           @Value("${budgets.anomaly.min-samples:10}") long minSamples,
+                           @Value("${budgets.warn-ratio:0.8}") BigDecimal warnRatio,
+                           @Value("${budgets.alerts.max-per-user:100}") int maxAlertsPerUser,
+                           @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.budgets = budgets;
+        this.repository = repository;
+        this.executor = executor;
+        this.anomalyZScore = anomalyZScore;
+        this.minSamples = Math.max(2, minSamples);
+        this.warnRatio = warnRatio;
+        this.maxAlertsPerUser = Math.max(1, maxAlertsPerUser);
+        for (SpendingAlert.Type type : SpendingAlert.Type.values()) {
+            raised.put(type, new LongAdder());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        loadQuietly();
+    }
+
+    @Scheduled(fixedDelayString = "${budgets.snapshot-interval:PT5M}", initialDelayString = "${budgets.snapshot-interval:PT5M}")
+    public void scheduled() {
+        if (state == null) {
+            // Database was down at startup
+            loadQuietly();
+            return;
+        }
+        try {
+            snapshot();
+        } catch (DataAccessException e) {
+            log.warn("Spending stats snapshot failed: {}", e.getMessage());
+        }
+        evictPastMonths(ExpenseRollupRepository.period(LocalDate.now()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (state == null) return;
+        try {
+            snapshot();
+        } catch (DataAccessException e) {
+            log.warn("Spending stats snapshot at shutdown failed: {}", e.getMessage());
+        }
+    }
+
+    private void loadQuietly() {
+        try {
+            state = load(false);
+            log.info("Spending tracker loaded {} statistics, {} budgets", state.stats.size(), state.limits.size());
+        } catch (DataAccessException e) {
+            log.warn("Spending tracker load failed: {}", e.getMessage());
+        }
+    }
+
+    private State load(boolean fromExpenses) {
+        State s = new State();
+        for (Budget b : budgets.findAll()) {
+            s.limits.put(new Key(b.getUserId(), b.getCategoryId(), null), b.getMonthlyLimit());
+        }
+        if (!fromExpenses) {
+            repository.loadSnapshot(rs -> s.stats.put(new Key(rs.getLong(1), rs.getLong(2), null),
+                    new RunningStats(rs.getLong(3), rs.getDouble(4), rs.getDouble(5))));
+        }
+        if (s.stats.isEmpty()) {
+            repository.aggregateExpenses(rs -> s.stats.put(new Key(rs.getLong(1), rs.getLong(2), null),
+                    new RunningStats(rs.getLong(3), rs.getDouble(4), rs.getDouble(5))));
+            s.dirty.addAll(s.stats.keySet());
+        }
+        repository.loadMonthTotals(ExpenseRollupRepository.period(LocalDate.now()),
+                rs -> s.monthTotals.put(new Key(rs.getLong(1), rs.getLong(2), rs.getString(3)), rs.getBigDecimal(4)));
+        return s;
+    }
+
+    /**
+     * Recomputes statistics, month totals and limits from the tables and
+     * replaces the snapshot. Writes that commit while it runs may be missed
+     * or counted twice; run it when the service is quiet.
+     */
+    public Map<String, Object> rebuild() {
+        State s = load(true);
+        List<Object[]> rows = new ArrayList<>(s.stats.size());
+        s.stats.forEach((k, v) -> rows.add(v.row(k.userId, k.categoryId)));
+        repository.replaceAll(rows);
+        s.dirty.clear();
+        state = s;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("statistics", s.stats.size());
+        m.put("monthTotals", s.monthTotals.size());
+        m.put("budgets", s.limits.size());
+        return m;
+    }
+
+    /** Writes statistics changed since the last snapshot; returns the number of rows written. */
+    public int snapshot() {
+        State s = state;
+        if (s == null) return 0;
+        List<Key> keys = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Iterator<Key> it = s.dirty.iterator(); it.hasNext(); ) {
+            Key k = it.next();
+            it.remove();
+            keys.add(k);
+            RunningStats stats = s.stats.get(k);
+            if (stats != null) rows.add(stats.row(k.userId, k.categoryId));
+        }
+        try {
+            repository.saveAll(rows);
+        } catch (DataAccessException e) {
+            s.dirty.addAll(keys);
+            throw e;
+        }
+        lastSnapshotAt = Instant.now();
+        lastSnapshotRows = rows.size();
+        return rows.size();
+    }
+
+    private void evictPastMonths(String currentPeriod) {
+        State s = state;
+        if (s != null) s.monthTotals.keySet().removeIf(k -> k.period.compareTo(currentPeriod) < 0);
+    }
+
+    // One aggregation over expenses: too slow for the maintenance thread that published the event
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesPurged(ExpensesPurgedEvent event) {
+        executor.execute(() -> {
+            try {
+                log.info("Spending tracker rebuilt after purge of expenses before {}: {}", event.getBefore(), rebuild());
+            } catch (DataAccessException e) {
+                log.warn("Spending tracker rebuild after purge failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        State s = state;
+        if (s == null) {
+            eventsSkipped.increment();
+            return;
+        }
+        long started = System.nanoTime();
+        String current = ExpenseRollupRepository.period(LocalDate.now());
+
+        // Net month-total deltas, so an edit that keeps an expense in its bucket only moves it by the difference
+        Map<Key, BigDecimal> deltas = new HashMap<>();
+        Map<Key, Expense> triggers = new HashMap<>();
+        Map<Long, Expense> beforeById = new HashMap<>();
+        for (Expense e : event.getBefore()) {
+            String period = ExpenseRollupRepository.period(e.getExpenseDate());
+            if (period.compareTo(current) >= 0) {
+                deltas.merge(key(e, period), e.getAmount().negate(), BigDecimal::add);
+            }
+            RunningStats stats = s.stats.get(key(e, null));
+            if (stats != null) {
+                stats.remove(e.getAmount().doubleValue());
+                s.dirty.add(key(e, null));
+            }
+            if (e.getId() != null) beforeById.put(e.getId(), e);
+        }
+        for (Expense e : event.getAfter()) {
+            String period = ExpenseRollupRepository.period(e.getExpenseDate());
+            boolean alertable = period.compareTo(current) >= 0;
+            if (alertable) {
+                Key month = key(e, period);
+                deltas.merge(month, e.getAmount(), BigDecimal::add);
+                triggers.put(month, e);
+            }
+            Key bucket = key(e, null);
+            RunningStats stats = s.stats.computeIfAbsent(bucket, k -> new RunningStats());
+            double amount = e.getAmount().doubleValue();
+            Expense before = e.getId() != null ? beforeById.get(e.getId()) : null;
+            boolean amountChanged = before == null
+                    || before.getAmount().compareTo(e.getAmount()) != 0
+                    || !Objects.equals(key(before, null), bucket);
+            if (alertable && amountChanged) {
+                double z = stats.zScore(amount, minSamples);
+                if (z >= anomalyZScore) {
+                    SpendingAlert alert = alert(SpendingAlert.Type.ANOMALY, e);
+                    alert.setMean(stats.mean());
+                    alert.setZScore(z);
+                    raise(alert);
+                }
+            }
+            stats.add(amount);
+            s.dirty.add(bucket);
+        }
+
+        deltas.forEach((month, delta) -> {
+            if (delta.signum() == 0) return;
+            BigDecimal total = s.monthTotals.merge(month, delta, BigDecimal::add);
+            BigDecimal limit = s.limits.get(new Key(month.userId, month.categoryId, null));
+            if (limit == null || delta.signum() < 0 || !triggers.containsKey(month)) return;
+            BigDecimal previous = total.subtract(delta);
+            SpendingAlert.Type type = null;
+            if (previous.compareTo(limit) <= 0 && total.compareTo(limit) > 0) {
+                type = SpendingAlert.Type.BUDGET_EXCEEDED;
+            } else if (previous.compareTo(limit.multiply(warnRatio)) < 0 && total.compareTo(limit.multiply(warnRatio)) >= 0) {
+                type = SpendingAlert.Type.BUDGET_WARNING;
+            }
+            if (type != null) {
+                SpendingAlert alert = alert(type, triggers.get(month));
+                alert.setPeriod(month.period);
+                alert.setSpent(total);
+                alert.setMonthlyLimit(limit);
+                raise(alert);
+            }
+        });
+        eventsApplied.increment();
+        updateNanos.add(System.nanoTime() - started);
+    }
+
+    private static SpendingAlert alert(SpendingAlert.Type type, Expense e) {
+        SpendingAlert a = new SpendingAlert();
+        a.setType(type);
+        a.setUserId(orZero(e.getUserId()));
+        a.setCategoryId(e.getCategoryId());
+        a.setCategory(e.getCategory());
+        a.setExpenseId(e.getId());
+        a.setAmount(e.getAmount());
+        a.setCreatedAt(Instant.now());
+        return a;
+    }
+
+    private void raise(SpendingAlert alert) {
+        Deque<SpendingAlert> recent = alerts.computeIfAbsent(alert.getUserId(), k -> new ArrayDeque<>());
+        synchronized (recent) {
+            recent.addFirst(alert);
+            while (recent.size() > maxAlertsPerUser) recent.removeLast();
+        }
+        raised.get(alert.getType()).increment();
+        log.debug("{} for user {} in category {}: amount {}", alert.getType(), alert.getUserId(), alert.getCategory(), alert.getAmount());
+    }
+
+    // --- budgets and alerts ---
+
+    /** The user's budgets with this month's spend filled in. */
+    public List<Budget> budgets(Long userId) {
+        List<Budget> list = budgets.findByUserId(userId);
+        State s = state;
+        String current = ExpenseRollupRepository.period(LocalDate.now());
+        for (Budget b : list) {
+            BigDecimal spent = s != null ? s.monthTotals.get(new Key(b.getUserId(), b.getCategoryId(), current)) : null;
+            b.setSpent(spent != null ? spent : BigDecimal.ZERO);
+        }
+        return list;
+    }
+
+    public void saveBudget(Budget budget) {
+        budgets.upsert(budget);
+        State s = state;
+        if (s != null) s.limits.put(new Key(budget.getUserId(), budget.getCategoryId(), null), budget.getMonthlyLimit());
+    }
+
+    public boolean deleteBudget(Long userId, Long categoryId) {
+        int deleted = budgets.delete(userId, categoryId);
+        State s = state;
+        if (s != null) s.limits.remove(new Key(userId, categoryId, null));
+        return deleted > 0;
+    }
+
+    /** Most recent alerts for the user, newest first. */
+    public List<SpendingAlert> alerts(Long userId, int limit) {
+        Deque<SpendingAlert> recent = alerts.get(userId);
+        if (recent == null) return List.of();
+        List<SpendingAlert> out = new ArrayList<>(Math.min(limit, maxAlertsPerUser));
+        synchronized (recent) {
+            for (SpendingAlert a : recent) {
+                if (out.size() >= limit) break;
+                out.add(a);
+            }
+        }
+        return out;
+    }
+
+    public Map<String, Object> stats() {
+        State s = state;
+        long applied = eventsApplied.sum();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("loaded", s != null);
+        m.put("statistics", s != null ? s.stats.size() : 0);
+        m.put("monthTotals", s != null ? s.monthTotals.size() : 0);
+        m.put("budgets", s != null ? s.limits.size() : 0);
+        m.put("unsavedStatistics", s != null ? s.dirty.size() : 0);
+        m.put("eventsApplied", applied);
+        m.put("eventsSkipped", eventsSkipped.sum());
+        m.put("avgUpdateMicros", applied == 0 ? 0.0 : updateNanos.sum() / 1000.0 / applied);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        raised.forEach((type, n) -> counts.put(type.name(), n.sum()));
+        m.put("alertsRaised", counts);
+        m.put("lastSnapshotAt", lastSnapshotAt != null ? lastSnapshotAt.toString() : null);
+        m.put("lastSnapshotRows", lastSnapshotRows);
+        return m;
+    }
+
+    private static Key key(Expense e, String period) {
+        return new Key(orZero(e.getUserId()), orZero(e.getCategoryId()), period);
+    }
+
+    private static long orZero(Long v) {
+        return v == null ? 0L : v;
+    }
+
+    private static final class State {
+        final Map<Key, RunningStats> stats = new ConcurrentHashMap<>();
+        final Map<Key, BigDecimal> limits = new ConcurrentHashMap<>();
+        final Map<Key, BigDecimal> monthTotals = new ConcurrentHashMap<>();
+        final Set<Key> dirty = ConcurrentHashMap.newKeySet();
+    }
+
+    // (user, category) for statistics and limits; with a "yyyy-MM" period for month totals
+    private static final class Key {
+        final long userId;
+        final long categoryId;
+        final String period;
+
+        Key(long userId, long categoryId, String period) {
+            this.userId = userId;
+            this.categoryId = categoryId;
+            this.period = period;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key k)) return false;
+            return userId == k.userId && categoryId == k.categoryId && Objects.equals(period, k.period);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, categoryId, period);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.expenses.controller;
+
+import com.example.expenses.budget.SpendingTracker;
+import com.example.expenses.model.Budget;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+public class BudgetController {
+
+    private static final int MAX_ALERTS = 100;
+
+    private final SpendingTracker tracker;
+
+    public BudgetController(SpendingTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    /** The user's monthly limits with this month's spend per category. */
+    @GetMapping("/budgets")
+    public List<Budget> getBudgets(@RequestParam(name = "userId") Long userId) {
+        return tracker.budgets(userId);
+    }
+
+    @PutMapping("/budgets")
+    public ResponseEntity<Budget> saveBudget(@Valid @RequestBody Budget budget) {
+        tracker.saveBudget(budget);
+        return ResponseEntity.ok(budget);
+    }
+
+    @DeleteMapping("/budgets")
+    public ResponseEntity<Void> deleteBudget(@RequestParam(name = "userId") Long userId,
+                                             @RequestParam(name = "categoryId") Long categoryId) {
+        return tracker.deleteBudget(userId, categoryId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /** Recent budget and anomaly alerts for the user, newest first. */
+    @GetMapping("/alerts")
+    public ResponseEntity<?> getAlerts(@RequestParam(name = "userId") Long userId,
+                                       @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_ALERTS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_ALERTS));
+        }
+        return ResponseEntity.ok(tracker.alerts(userId, limit));
+    }
+
+    @GetMapping("/alerts/stats")
+    public Map<String, Object> stats() {
+        return tracker.stats();
+    }
+
+    /**
+     * Recomputes the running statistics and month totals from the tables and replaces the snapshot.
+     */
+    @PostMapping("/alerts/rebuild")
+    public Map<String, Object> rebuild() {
+        return tracker.rebuild();
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.expenses.controller;
 
 import com.example.expenses.model.Category;
+import com.example.expenses.repository.CategoryCache;
 import com.example.expenses.repository.CategoryRepository;
+import com.example.expenses.repository.DataVersions;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.util.List;
@@ -15,13 +19,22 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryRepository repository;
+    private final CategoryCache categoryCache;
+    private final DataVersions versions;
 
-    public CategoryController(CategoryRepository repository) {
+    public CategoryController(CategoryRepository repository, CategoryCache categoryCache, DataVersions versions) {
         this.repository = repository;
+        this.categoryCache = categoryCache;
+        this.versions = versions;
     }
 
     @GetMapping
-    public List<Category> getAll() { return repository.findAll(); }
+    public ResponseEntity<List<Category>> getAll(WebRequest request) {
+        String etag = versions.categoriesTag();
+        // Answered with 304 from the version counter alone, before any query
+        if (request.checkNotModified(etag)) return null;
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(repository.findAll());
+    }
 
     @GetMapping("/{id}")
     public ResponseEntity<Category> getById(@PathVariable Long id) {
@@ -34,12 +47,14 @@ public class CategoryController {
     public ResponseEntity<Category> create(@Valid @RequestBody Category category) {
         Long id = repository.create(category);
         category.setId(id);
+        categoryCache.put(category.getName(), id);
         return ResponseEntity.created(URI.create("/api/categories/" + id)).body(category);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Void> update(@PathVariable Long id, @Valid @RequestBody Category category) {
         int updated = repository.update(id, category);
+        categoryCache.invalidate(id);
         if (updated == 0) return ResponseEntity.notFound().build();
         return ResponseEntity.noContent().build();
     }
@@ -47,6 +62,7 @@ public class CategoryController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         int deleted = repository.delete(id);
+        categoryCache.invalidate(id);
         if (deleted == 0) return ResponseEntity.notFound().build();
         return ResponseEntity.noContent().build();
     }
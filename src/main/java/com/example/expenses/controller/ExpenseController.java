@@ -1,32 +1,386 @@
 package com.example.expenses.controller;
 
 import com.example.expenses.model.Expense;
+import com.example.expenses.model.ExpenseFilter;
+import com.example.expenses.model.ExpensePage;
+import com.example.expenses.model.SummaryBucket;
+import com.example.expenses.repository.DataVersions;
+import com.example.expenses.repository.ExpenseCache;
 import com.example.expenses.repository.ExpenseRepository;
+import com.example.expenses.repository.ExpenseRollupRepository;
+import com.example.expenses.routing.RoutedStreamingBody;
+import com.example.expenses.search.ExpenseSearchIndex;
+import com.example.expenses.search.ExpenseSearchQuery;
+import com.example.expenses.util.CsvWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/expenses")
 @CrossOrigin(origins = "*")
 public class ExpenseController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final ExpenseRepository repository;
+    private final ExpenseRollupRepository rollups;
+    private final ObjectMapper mapper;
+    private final DataVersions versions;
+    private final ExpenseSearchIndex search;
+    private final ExpenseCache cache;
 
-    public ExpenseController(ExpenseRepository repository) {
+    public ExpenseController(ExpenseRepository repository, ExpenseRollupRepository rollups, ObjectMapper mapper,
+                             DataVersions versions, ExpenseSearchIndex search, ExpenseCache cache) {
         this.repository = repository;
+        this.rollups = rollups;
+        this.mapper = mapper;
+        this.versions = versions;
+        this.search = search;
+        this.cache = cache;
     }
 
+    /**
+     * Without paging parameters this returns the full list as before.
+     * With limit and/or after it returns one keyset page plus the cursor for the next one.
+     * With stream=true rows are written to the response while they are read, without building a list;
+     * it returns the whole list, so filters, sort and paging parameters are rejected with it.
+     * Filters (from/to, accountId, categoryId, minAmount/maxAmount) and sort narrow one user's list in
+     * SQL; they combine with limit/after (an amount sort pages by (amount, id), the others by (expense_date, id).
+     * Lists and pages carry an ETag from the user's data version; a matching If-None-Match gets 304
+     * without a query.
+     */
     @GetMapping
-    public List<Expense> getAll(@RequestParam(name = "userId", required = false) Long userId) {
-        if (userId != null) {
-            return repository.findAllByUserId(userId);
+    public ResponseEntity<?> getAll(@RequestParam(name = "userId", required = false) Long userId,
+                                    @RequestParam(name = "limit", required = false) Integer limit,
+                                    @RequestParam(name = "after", required = false) String after,
+                                    @RequestParam(name = "stream", defaultValue = "false") boolean stream,
+                                    @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                    @RequestParam(name = "accountId", required = false) Long accountId,
+                                    @RequestParam(name = "categoryId", required = false) Long categoryId,
+                                    @RequestParam(name = "minAmount", required = false) BigDecimal minAmount,
+                                    @RequestParam(name = "maxAmount", required = false) BigDecimal maxAmount,
+                                    @RequestParam(name = "sort", required = false) String sort,
+                                    WebRequest request) {
+        boolean filtered = from != null || to != null || accountId != null || categoryId != null
+                || minAmount != null || maxAmount != null || sort != null;
+        if (stream) {
+            if (filtered || limit != null || after != null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "stream does not combine with filters, sort or paging"));
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(streamJson(userId));
+        }
+        // Read the version before the data: a write racing this request can only make the tag older, never newer
+        String etag = versions.expensesTag(userId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ExpenseFilter filter = null;
+        if (filtered) {
+            if (userId == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "userId is required with filters"));
+            }
+            ExpenseFilter.Sort order = sort != null ? ExpenseFilter.Sort.parse(sort) : ExpenseFilter.Sort.DATE_DESC;
+            if (order == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "sort must be date_desc, date_asc, amount_desc or amount_asc"));
+            }
+            filter = new ExpenseFilter();
+            filter.setUserId(userId);
+            filter.setFrom(from);
+            filter.setTo(to);
+            filter.setAccountId(accountId);
+            filter.setCategoryId(categoryId);
+            filter.setMinAmount(minAmount);
+            filter.setMaxAmount(maxAmount);
+            filter.setSort(order);
+        }
+        if (limit == null && after == null) {
+            List<Expense> list = filter != null ? repository.findFiltered(filter, null, null)
+                    : (userId != null) ? repository.findAllByUserId(userId) : repository.findAll();
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(list);
+        }
+
+        ExpensePage.Cursor cursor = null;
+        if (after != null && !after.isBlank()) {
+            try {
+                cursor = ExpensePage.Cursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "invalid cursor"));
+            }
+            boolean amountSort = filter != null && !filter.getSort().byDate();
+            if (cursor.byAmount() != amountSort) {
+                return ResponseEntity.badRequest().body(Map.of("error", "cursor does not match sort"));
+            }
+        }
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : 50, MAX_PAGE_SIZE));
+        // Fetch one extra row to learn whether another page exists
+        List<Expense> rows = filter != null
+                ? repository.findFiltered(filter, cursor, pageSize + 1)
+                : repository.findPage(userId, cursor != null ? cursor.getExpenseDate() : null,
+                        cursor != null ? cursor.getId() : null, pageSize + 1);
+        String next = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Expense last = rows.get(pageSize - 1);
+            next = (filter == null || filter.getSort().byDate() ? ExpensePage.Cursor.of(last) : ExpensePage.Cursor.ofAmount(last)).encode();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(new ExpensePage(rows, next));
+    }
+
+    private StreamingResponseBody streamJson(Long userId) {
+        ObjectWriter writer = mapper.writerFor(Expense.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return RoutedStreamingBody.of(out -> {
+            try (JsonGenerator gen = mapper.createGenerator(out)) {
+                gen.writeStartArray();
+                repository.streamAll(userId, e -> {
+                    try {
+                        writer.writeValue(gen, e);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                gen.writeEndArray();
+            }
+        });
+    }
+
+    /**
+     * Full-history download as CSV (same columns the import accepts) or NDJSON, optionally gzipped.
+     * Rows go from the streaming cursor of ExpenseRepository.streamAll to the response as they are
+     * read: memory stays flat and the first row is flushed before the query has finished.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> export(@RequestParam(name = "userId", required = false) Long userId,
+                                    @RequestParam(name = "format", defaultValue = "csv") String format,
+                                    @RequestParam(name = "gzip", defaultValue = "false") boolean gzip) {
+        String fmt = format.toLowerCase();
+        if (!fmt.equals("csv") && !fmt.equals("ndjson")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "format must be csv or ndjson"));
+        }
+        String filename = "expenses" + (userId != null ? "-" + userId : "") + "-" + LocalDate.now() + "." + fmt
+                + (gzip ? ".gz" : "");
+        MediaType type = gzip ? MediaType.parseMediaType("application/gzip")
+                : fmt.equals("csv") ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody body = RoutedStreamingBody.of(out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192, true) : out;
+            try (BufferedWriter w = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 16 * 1024)) {
+                if (fmt.equals("csv")) {
+                    writeCsv(userId, w);
+                } else {
+                    writeNdjson(userId, w);
+                }
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
+    private void writeCsv(Long userId, BufferedWriter w) throws IOException {
+        CsvWriter csv = new CsvWriter(w);
+        csv.writeRecord("id", "title", "amount", "category", "expense_date", "notes", "account_id");
+        csv.flush();
+        repository.streamAll(userId, e -> {
+            try {
+                csv.writeRecord(String.valueOf(e.getId()), e.getTitle(),
+                        e.getAmount() != null ? e.getAmount().toPlainString() : null, e.getCategory(),
+                        e.getExpenseDate() != null ? e.getExpenseDate().toString() : null, e.getNotes(),
+                        e.getAccountId() != null ? e.getAccountId().toString() : null);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    private void writeNdjson(Long userId, BufferedWriter w) throws IOException {
+        ObjectWriter writer = mapper.writerFor(Expense.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator gen = mapper.createGenerator(w)) {
+            // One generator for all rows; the newline is the record separator
+            gen.setRootValueSeparator(null);
+            boolean[] first = {true};
+            repository.streamAll(userId, e -> {
+                try {
+                    writer.writeValue(gen, e);
+                    gen.writeRaw('\n');
+                    // Get the response started; later rows go out as the buffers fill
+                    if (first[0]) {
+                        gen.flush();
+                        first[0] = false;
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+
+    /**
+     * Ranked search over titles and notes: every word of q must match a word, or the start of one
+     * ("tax" finds "taxi"). Without q the filters alone apply, newest first. Paged by offset.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam(name = "userId") Long userId,
+                                    @RequestParam(name = "q", required = false) String q,
+                                    @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                    @RequestParam(name = "minAmount", required = false) BigDecimal minAmount,
+                                    @RequestParam(name = "maxAmount", required = false) BigDecimal maxAmount,
+                                    @RequestParam(name = "categoryId", required = false) Long categoryId,
+                                    @RequestParam(name = "category", required = false) String category,
+                                    @RequestParam(name = "limit", required = false) Integer limit,
+                                    @RequestParam(name = "offset", defaultValue = "0") int offset,
+                                    WebRequest request) {
+        if (offset < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "offset must not be negative"));
         }
-        return repository.findAll();
+        String etag = versions.expensesTag(userId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ExpenseSearchQuery query = new ExpenseSearchQuery();
+        query.setText(q);
+        query.setFrom(from);
+        query.setTo(to);
+        query.setMinAmount(minAmount);
+        query.setMaxAmount(maxAmount);
+        query.setCategoryId(categoryId);
+        query.setCategory(category);
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : 50, MAX_PAGE_SIZE));
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(search.search(userId, query, offset, pageSize));
+    }
+
+    @GetMapping("/search/stats")
+    public Map<String, Object> searchStats() {
+        return search.stats();
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Dashboard rollup in one response: overall total plus breakdowns by month, category and account.
+     * Optional accountId/categoryId narrow every breakdown to that account or category.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<Map<String, Object>> summary(@RequestParam(name = "userId") Long userId,
+                                                       @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                       @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                       @RequestParam(name = "accountId", required = false) Long accountId,
+                                                       @RequestParam(name = "categoryId", required = false) Long categoryId,
+                                                       WebRequest request) {
+        String etag = versions.summaryTag(userId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        boolean monthly = monthAligned(from, to);
+        SummaryBucket total = monthly
+                ? rollups.summarizeTotal(userId, from, to, accountId, categoryId)
+                : repository.summarizeTotal(userId, from, to, accountId, categoryId);
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("total", total.getTotal());
+        res.put("count", total.getCount());
+        res.put("byMonth", monthly
+                ? rollups.summarizeByMonth(userId, from, to, accountId, categoryId)
+                : repository.summarizeByMonth(userId, from, to, accountId, categoryId));
+        res.put("byCategory", monthly
+                ? rollups.summarizeByCategory(userId, from, to, accountId, categoryId)
+                : repository.summarizeByCategory(userId, from, to, accountId, categoryId));
+        res.put("byAccount", monthly
+                ? rollups.summarizeByAccount(userId, from, to, accountId, categoryId)
+                : repository.summarizeByAccount(userId, from, to, accountId, categoryId));
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(res);
+    }
+
+    @GetMapping("/summary/monthly")
+    public List<SummaryBucket> summaryByMonth(@RequestParam(name = "userId") Long userId,
+                                              @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                              @RequestParam(name = "accountId", required = false) Long accountId,
+                                              @RequestParam(name = "categoryId", required = false) Long categoryId) {
+        return monthAligned(from, to)
+                ? rollups.summarizeByMonth(userId, from, to, accountId, categoryId)
+                : repository.summarizeByMonth(userId, from, to, accountId, categoryId);
+    }
+
+    @GetMapping("/summary/by-category")
+    public List<SummaryBucket> summaryByCategory(@RequestParam(name = "userId") Long userId,
+                                                 @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                 @RequestParam(name = "accountId", required = false) Long accountId,
+                                                 @RequestParam(name = "categoryId", required = false) Long categoryId) {
+        return monthAligned(from, to)
+                ? rollups.summarizeByCategory(userId, from, to, accountId, categoryId)
+                : repository.summarizeByCategory(userId, from, to, accountId, categoryId);
+    }
+
+    @GetMapping("/summary/by-account")
+    public List<SummaryBucket> summaryByAccount(@RequestParam(name = "userId") Long userId,
+                                                @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                @RequestParam(name = "accountId", required = false) Long accountId,
+                                                @RequestParam(name = "categoryId", required = false) Long categoryId) {
+        return monthAligned(from, to)
+                ? rollups.summarizeByAccount(userId, from, to, accountId, categoryId)
+                : repository.summarizeByAccount(userId, from, to, accountId, categoryId);
+    }
+
+    /**
+     * Recomputes expense_rollups from the expenses table (one user, or everyone without userId).
+     */
+    @PostMapping("/rollups/rebuild")
+    public Map<String, Object> rebuildRollups(@RequestParam(name = "userId", required = false) Long userId) {
+        int buckets = rollups.rebuild(userId);
+        versions.bumpExpenses(userId);
+        return Map.of("buckets", buckets);
+    }
+
+    /**
+     * Lists buckets where expense_rollups disagrees with a fresh aggregation; empty means consistent.
+     */
+    @GetMapping("/rollups/verify")
+    public Map<String, Object> verifyRollups(@RequestParam(name = "userId", required = false) Long userId) {
+        List<Map<String, Object>> mismatches = rollups.verify(userId);
+        return Map.of("consistent", mismatches.isEmpty(), "mismatches", mismatches);
+    }
+
+    // Whole-month ranges can be answered from the rollups (one row per bucket) instead of scanning expenses
+    private static boolean monthAligned(LocalDate from, LocalDate to) {
+        return (from == null || from.getDayOfMonth() == 1)
+                && (to == null || to.getDayOfMonth() == to.lengthOfMonth());
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,196 @@
+package com.example.expenses.controller;
+
+import com.example.expenses.model.Expense;
+import com.example.expenses.model.ImportReport;
+import com.example.expenses.repository.ExpenseRepository;
+import com.example.expenses.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk import of bank-statement rows. The body is parsed as it arrives (CSV
+ * with a header row, or NDJSON with one expense object per line) and written
+ * in chunks through ExpenseRepository.createBatch; only the current chunk is
+ * kept in memory.
+ */
+@RestController
+@RequestMapping("/api/expenses")
+@CrossOrigin(origins = "*")
+public class ExpenseImportController {
+
+    private static final int MAX_CHUNK_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ExpenseRepository repository;
+    private final ObjectMapper mapper;
+    private final Validator validator;
+    private final int defaultChunkSize;
+
+    public ExpenseImportController(ExpenseRepository repository, ObjectMapper mapper, Validator validator,
+                                   @Value("${expenses.import.chunk-size:1000}") int defaultChunkSize) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.validator = validator;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    /**
+     * CSV columns are matched by header name: title, amount, category, expense_date (or date), notes, account_id.
+     * The format comes from ?format=csv|ndjson, or else from the Content-Type.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importExpenses(@RequestParam(name = "userId", required = false) Long userId,
+                                            @RequestParam(name = "format", required = false) String format,
+                                            @RequestParam(name = "chunkSize", required = false) Integer chunkSize,
+                                            @RequestHeader(name = "Content-Type", required = false) String contentType,
+                                            InputStream body) throws IOException {
+        String fmt = StringUtils.hasText(format) ? format.toLowerCase()
+                : (contentType != null && contentType.contains("ndjson") ? "ndjson" : "csv");
+        if (!fmt.equals("csv") && !fmt.equals("ndjson")) {
+            return ResponseEntity.badRequest().body(Map.of("error", "format must be csv or ndjson"));
+        }
+        int size = Math.max(1, Math.min(chunkSize != null ? chunkSize : defaultChunkSize, MAX_CHUNK_SIZE));
+
+        Session session = new Session(userId, size);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        if (fmt.equals("ndjson")) {
+            readNdjson(reader, session);
+        } else {
+            readCsv(reader, session);
+        }
+        return ResponseEntity.ok(session.finish());
+    }
+
+    private void readNdjson(BufferedReader reader, Session session) throws IOException {
+        String line;
+        int lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) continue;
+            try {
+                session.accept(lineNo, mapper.readValue(line, Expense.class));
+            } catch (JsonProcessingException e) {
+                session.reject(lineNo, "invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Session session) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return;
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase().replace("_", "").replace(" ", ""), i);
+        }
+        Integer date = columns.containsKey("expensedate") ? columns.get("expensedate") : columns.get("date");
+
+        List<String> row;
+        while ((row = csv.next()) != null) {
+            int lineNo = csv.getRecordLine();
+            try {
+                Expense e = new Expense();
+                e.setTitle(field(row, columns.get("title")));
+                String amount = field(row, columns.get("amount"));
+                e.setAmount(amount != null ? new BigDecimal(amount) : null);
+                e.setCategory(field(row, columns.get("category")));
+                String d = field(row, date);
+                e.setExpenseDate(d != null ? LocalDate.parse(d) : null);
+                e.setNotes(field(row, columns.get("notes")));
+                String account = field(row, columns.get("accountid"));
+                e.setAccountId(account != null ? Long.valueOf(account) : null);
+                session.accept(lineNo, e);
+            } catch (RuntimeException ex) {
+                session.reject(lineNo, "invalid value: " + ex.getMessage());
+            }
+        }
+    }
+
+    private static String field(List<String> row, Integer index) {
+        if (index == null || index >= row.size()) return null;
+        String v = row.get(index).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    /** Accumulates one chunk at a time and the running report. */
+    private class Session {
+        private final Long userId;
+        private final int chunkSize;
+        private final long started = System.nanoTime();
+        private final ImportReport report = new ImportReport();
+        private final List<Expense> chunk = new ArrayList<>();
+        private final List<Integer> lines = new ArrayList<>();
+
+        Session(Long userId, int chunkSize) {
+            this.userId = userId;
+            this.chunkSize = chunkSize;
+        }
+
+        void accept(int line, Expense e) {
+            if (userId != null) e.setUserId(userId);
+            if (e.getExpenseDate() == null) e.setExpenseDate(LocalDate.now());
+            Set<ConstraintViolation<Expense>> violations = validator.validate(e);
+            if (!violations.isEmpty()) {
+                ConstraintViolation<Expense> v = violations.iterator().next();
+                reject(line, v.getPropertyPath() + " " + v.getMessage());
+                return;
+            }
+            chunk.add(e);
+            lines.add(line);
+            if (chunk.size() >= chunkSize) flush();
+        }
+
+        void reject(int line, String error) {
+            report.setFailed(report.getFailed() + 1);
+            if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                report.getErrors().add(new ImportReport.RowError(line, error));
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) return;
+            try {
+                report.setImported(report.getImported() + repository.createBatch(chunk));
+            } catch (DataAccessException batchError) {
+                // Isolate the offending rows: retry the chunk one row at a time
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        report.setImported(report.getImported() + repository.createBatch(List.of(chunk.get(i))));
+                    } catch (DataAccessException rowError) {
+                        reject(lines.get(i), rowError.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            chunk.clear();
+            lines.clear();
+        }
+
+        ImportReport finish() {
+            flush();
+            long elapsedNanos = System.nanoTime() - started;
+            report.setElapsedMs(elapsedNanos / 1_000_000);
+            report.setRowsPerSecond(elapsedNanos > 0 ? report.getImported() * 1e9 / elapsedNanos : 0);
+            return report;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.expenses.controller;
+
+import com.example.expenses.ingest.ExpenseIngestQueue;
+import com.example.expenses.ingest.IngestTicket;
+import com.example.expenses.model.Expense;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Asynchronous create (expenses.ingest.enabled=true). POST answers 202 with a
+ * provisional id as soon as the expense is queued; GET on the returned
+ * location reports PENDING, COMMITTED (with the real expense id) or FAILED.
+ * POST /api/expenses stays synchronous.
+ */
+@RestController
+@RequestMapping("/api/expenses/ingest")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "expenses.ingest.enabled", havingValue = "true")
+public class ExpenseIngestController {
+
+    private final ExpenseIngestQueue queue;
+
+    public ExpenseIngestController(ExpenseIngestQueue queue) {
+        this.queue = queue;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> ingest(@Valid @RequestBody Expense expense) throws InterruptedException {
+        if (expense.getExpenseDate() == null) {
+            expense.setExpenseDate(LocalDate.now());
+        }
+        IngestTicket ticket = queue.submit(expense);
+        if (ticket == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "ingest queue is full"));
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/expenses/ingest/" + ticket.getProvisionalId()))
+                .body(ticket);
+    }
+
+    @GetMapping("/{provisionalId}")
+    public ResponseEntity<IngestTicket> status(@PathVariable String provisionalId) {
+        IngestTicket ticket = queue.ticket(provisionalId);
+        if (ticket == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(ticket);
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return queue.stats();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.expenses.event;
+
+/**
+ * Published when a category is created, renamed or deleted, including
+ * categories auto-created while saving expenses. categoryId is null when
+ * the change is not tied to one known id.
+ */
+public class CategoriesChangedEvent {
+    private final Long categoryId;
+
+    public CategoriesChangedEvent(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getCategoryId() { return categoryId; }
+}
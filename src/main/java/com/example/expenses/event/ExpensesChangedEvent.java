@@ -0,0 +1,48 @@
+package com.example.expenses.event;
+
+import com.example.expenses.model.Expense;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published by ExpenseRepository for every successful write: the rows as they
+ * were before (update, delete) and as they are after (create, update). Listen
+ * with {@code @TransactionalEventListener(fallbackExecution = true)} to react
+ * only once the change is committed.
+ */
+public class ExpensesChangedEvent {
+    private final List<Expense> before;
+    private final List<Expense> after;
+
+    public ExpensesChangedEvent(List<Expense> before, List<Expense> after) {
+        this.before = before;
+        this.after = after;
+    }
+
+    public static ExpensesChangedEvent created(List<Expense> expenses) {
+        return new ExpensesChangedEvent(List.of(), expenses);
+    }
+
+    public static ExpensesChangedEvent updated(Expense before, Expense after) {
+        return new ExpensesChangedEvent(List.of(before), List.of(after));
+    }
+
+    public static ExpensesChangedEvent deleted(Expense before) {
+        return new ExpensesChangedEvent(List.of(before), List.of());
+    }
+
+    public List<Expense> getBefore() { return before; }
+
+    public List<Expense> getAfter() { return after; }
+
+    /** Owners of the touched rows (both sides: an update may move a row between users). */
+    public Set<Long> userIds() {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Expense e : before) ids.add(e.getUserId());
+        for (Expense e : after) ids.add(e.getUserId());
+        ids.remove(null);
+        return ids;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.expenses.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published after expenses dated before a cutoff were removed in bulk
+ * (partitions dropped), bypassing ExpenseRepository. Any user may be
+ * affected, so per-user caches should be cleared wholesale.
+ */
+public class ExpensesPurgedEvent {
+    private final LocalDate before;
+
+    public ExpensesPurgedEvent(LocalDate before) {
+        this.before = before;
+    }
+
+    public LocalDate getBefore() { return before; }
+}
@@ -0,0 +1,268 @@
+package com.example.expenses.ingest;
+
+import com.example.expenses.model.Expense;
+import com.example.expenses.repository.ExpenseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind path for expenses (expenses.ingest.enabled=true). Accepted
+ * expenses wait in a bounded queue and are written by flusher threads through
+ * ExpenseRepository.createBatch, so many concurrent writers share one
+ * transaction and one commit per batch instead of paying for a commit each.
+ *
+ * Callers get a provisional id at once and can look up the real id when the
+ * batch has committed. A full queue rejects new work (the caller answers 503)
+ * rather than growing without bound. On shutdown intake stops and the queue
+ * is drained before the DataSource closes.
+ */
+@Component
+@ConditionalOnProperty(name = "expenses.ingest.enabled", havingValue = "true")
+public class ExpenseIngestQueue implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(ExpenseIngestQueue.class);
+
+    private final ExpenseRepository repository;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final long offerTimeoutNanos;
+    private final long statusTtlNanos;
+    private final long drainTimeoutMs;
+    private final int flusherCount;
+
+    private final String prefix = "p" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, IngestTicket> tickets = new ConcurrentHashMap<>();
+
+    private final List<Thread> flushers = new ArrayList<>();
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private long lastSweep = System.nanoTime();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public ExpenseIngestQueue(ExpenseRepository repository,
+                              MeterRegistry registry,
+                              @Value("${expenses.ingest.capacity:10000}") int capacity,
+                              @Value("${expenses.ingest.max-batch:500}") int maxBatch,
+                              @Value("${expenses.ingest.linger:5ms}") Duration linger,
+                              @Value("${expenses.ingest.offer-timeout:50ms}") Duration offerTimeout,
+                              @Value("${expenses.ingest.flushers:2}") int flushers,
+                              @Value("${expenses.ingest.status-ttl:2m}") Duration statusTtl,
+                              @Value("${expenses.ingest.drain-timeout:30s}") Duration drainTimeout) {
+        this.repository = repository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.lingerNanos = linger.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.flusherCount = Math.max(1, flushers);
+        this.statusTtlNanos = statusTtl.toNanos();
+        this.drainTimeoutMs = drainTimeout.toMillis();
+        Gauge.builder("expenses.ingest.queue.size", queue, BlockingQueue::size)
+                .description("Expenses accepted but not yet committed")
+                .register(registry);
+    }
+
+    /**
+     * Queues the expense and returns its ticket, or null when the queue stayed
+     * full for expenses.ingest.offer-timeout (or the service is shutting down).
+     */
+    public IngestTicket submit(Expense expense) throws InterruptedException {
+        if (!accepting) {
+            rejected.increment();
+            return null;
+        }
+        IngestTicket ticket = new IngestTicket(prefix + sequence.incrementAndGet());
+        // Registered first: a flusher may commit it (and the client poll for it) before offer returns
+        tickets.put(ticket.getProvisionalId(), ticket);
+        if (!queue.offer(new Pending(expense, ticket), offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+            tickets.remove(ticket.getProvisionalId());
+            rejected.increment();
+            return null;
+        }
+        accepted.increment();
+        return ticket;
+    }
+
+    public IngestTicket ticket(String provisionalId) {
+        return tickets.get(provisionalId);
+    }
+
+    private void runFlusher() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    sweep();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                // Under light load give concurrent writers a moment to join the batch
+                if (batch.size() < maxBatch && lingerNanos > 0 && running) {
+                    long deadline = System.nanoTime() + lingerNanos;
+                    long left;
+                    while (batch.size() < maxBatch && (left = deadline - System.nanoTime()) > 0) {
+                        Pending next = queue.poll(left, TimeUnit.NANOSECONDS);
+                        if (next == null) break;
+                        batch.add(next);
+                        queue.drainTo(batch, maxBatch - batch.size());
+                    }
+                }
+                flush(batch);
+                sweep();
+            } catch (RuntimeException e) {
+                // Never let the flusher die: whatever was drained must not stay PENDING
+                log.error("Ingest flusher error, failing {} pending expenses", batch.size(), e);
+                for (Pending p : batch) {
+                    if (p.ticket.getStatus() == IngestTicket.Status.PENDING) {
+                        p.ticket.failed(message(e));
+                        failed.increment();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts only after the drain deadline; give up on what is left
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<Expense> expenses = new ArrayList<>(batch.size());
+        for (Pending p : batch) expenses.add(p.expense);
+        batches.increment();
+        try {
+            repository.createBatch(expenses);
+            for (Pending p : batch) {
+                p.ticket.committed(p.expense.getId());
+            }
+            committed.add(batch.size());
+        } catch (RuntimeException e) {
+            // One bad row must not sink its neighbours: retry them one by one. Not only DataAccessException:
+            // a database that is down surfaces as CannotCreateTransactionException
+            log.warn("Ingest batch of {} failed, retrying row by row: {}", batch.size(), e.getMessage());
+            for (Pending p : batch) {
+                try {
+                    p.ticket.committed(repository.create(p.expense));
+                    committed.increment();
+                } catch (RuntimeException rowError) {
+                    p.ticket.failed(message(rowError));
+                    failed.increment();
+                }
+            }
+        }
+    }
+
+    private static String message(RuntimeException e) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    // Forget finished tickets after expenses.ingest.status-ttl
+    private void sweep() {
+        long now = System.nanoTime();
+        synchronized (tickets) {
+            if (now - lastSweep < 1_000_000_000L) return;
+            lastSweep = now;
+        }
+        tickets.values().removeIf(t -> t.getStatus() != IngestTicket.Status.PENDING && now - t.getCompletedAt() > statusTtlNanos);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("queued", queue.size());
+        m.put("capacity", queue.size() + queue.remainingCapacity());
+        m.put("accepted", accepted.sum());
+        m.put("rejected", rejected.sum());
+        m.put("committed", committed.sum());
+        m.put("failed", failed.sum());
+        long b = batches.sum();
+        m.put("batches", b);
+        m.put("avgBatchSize", b == 0 ? 0.0 : (double) (committed.sum() + failed.sum()) / b);
+        return m;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        accepting = true;
+        for (int i = 0; i < flusherCount; i++) {
+            Thread t = new Thread(this::runFlusher, "expense-ingest-" + i);
+            t.start();
+            flushers.add(t);
+        }
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        running = false;
+        long deadline = System.currentTimeMillis() + drainTimeoutMs;
+        for (Thread t : flushers) {
+            try {
+                t.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Thread t : flushers) {
+            if (t.isAlive()) t.interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Ingest drain timed out; {} accepted expenses were not written", queue.size());
+        } else {
+            log.info("Ingest queue drained ({} committed, {} failed)", committed.sum(), failed.sum());
+        }
+        flushers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Below the web server's phases: started before it takes traffic, stopped (drained) after it stops,
+    // and lifecycle stop always precedes the DataSource being closed
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private static final class Pending {
+        final Expense expense;
+        final IngestTicket ticket;
+
+        Pending(Expense expense, IngestTicket ticket) {
+            this.expense = expense;
+            this.ticket = ticket;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.expenses.ingest;
+
+/**
+ * Client-visible handle for an expense accepted by the ingest queue. The
+ * provisional id is valid immediately; expenseId is set once the group
+ * commit containing the expense has succeeded.
+ */
+public class IngestTicket {
+
+    public enum Status { PENDING, COMMITTED, FAILED }
+
+    private final String provisionalId;
+    private volatile Status status = Status.PENDING;
+    private volatile Long expenseId;
+    private volatile String error;
+    private volatile long completedAt;
+
+    public IngestTicket(String provisionalId) {
+        this.provisionalId = provisionalId;
+    }
+
+    public String getProvisionalId() { return provisionalId; }
+
+    public Status getStatus() { return status; }
+
+    public Long getExpenseId() { return expenseId; }
+
+    public String getError() { return error; }
+
+    long getCompletedAt() { return completedAt; }
+
+    void committed(Long id) {
+        this.expenseId = id;
+        this.completedAt = System.nanoTime();
+        this.status = Status.COMMITTED;
+    }
+
+    void failed(String message) {
+        this.error = message;
+        this.completedAt = System.nanoTime();
+        this.status = Status.FAILED;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.expenses.metrics;
+
+import com.example.expenses.ai.LlmCircuitBreaker;
+import com.example.expenses.ai.SuggestionBatcher;
+import com.example.expenses.ai.SuggestionCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for category suggestions: {@code ai.suggestions} counts how each
+ * request was answered, {@code ai.llm.requests} times the outbound calls, and
+ * gauges track the suggestion cache, in-flight LLM lookups and calls, and the
+ * circuit breaker state. Counters are registered up front so recording is a
+ * plain increment. Not lazy: the series are scraped (at zero) from startup,
+ * before the first /api/ai request; the batcher and breaker gauges follow
+ * once those beans are created.
+ */
+@Component
+public class AiMetrics {
+
+    public enum Outcome {
+        OPENAI("openai"),
+        CACHE_HIT("cache-hit"),
+        RULE_BASED("rule-based"),
+        TIMEOUT("timeout"),
+        ERROR("error"),
+        BUDGET_EXCEEDED("budget-exceeded"),
+        CIRCUIT_OPEN("circuit-open"),
+        BULKHEAD_FULL("bulkhead-full");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Counter[] outcomes = new Counter[Outcome.values().length];
+    private final Timer llmSuccess;
+    private final Timer llmFailure;
+
+    public AiMetrics(MeterRegistry registry, SuggestionCache cache) {
+        this.registry = registry;
+        for (Outcome o : Outcome.values()) {
+            outcomes[o.ordinal()] = Counter.builder("ai.suggestions")
+                    .description("Category suggestions by how they were answered")
+                    .tag("outcome", o.tag)
+                    .register(registry);
+        }
+        llmSuccess = llmTimer(registry, "success");
+        llmFailure = llmTimer(registry, "error");
+        Gauge.builder("ai.cache.size", cache, SuggestionCache::size)
+                .description("Entries in the suggestion cache")
+                .register(registry);
+    }
+
+    /** Called by the batcher itself, which depends on these meters. */
+    public void watch(SuggestionBatcher batcher) {
+        Gauge.builder("ai.llm.in.flight", batcher, SuggestionBatcher::inFlight)
+                .description("Distinct suggestions waiting on the LLM")
+                .register(registry);
+        Gauge.builder("ai.llm.calls.active", batcher, SuggestionBatcher::activeCalls)
+                .description("Outbound LLM calls holding a bulkhead slot")
+                .register(registry);
+    }
+
+    /** 0 closed, 1 half-open, 2 open. */
+    public void watch(LlmCircuitBreaker breaker) {
+        Gauge.builder("ai.llm.breaker.state", breaker, b -> b.state().ordinal())
+                .description("LLM circuit breaker state (0 closed, 1 half-open, 2 open)")
+                .register(registry);
+    }
+
+    private static Timer llmTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("ai.llm.requests")
+                .description("Outbound Chat Completions calls (single or batched)")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public void record(Outcome outcome) {
+        outcomes[outcome.ordinal()].increment();
+    }
+
+    public void recordLlmCall(long nanos, boolean success) {
+        (success ? llmSuccess : llmFailure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.expenses.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Configuration
+public class MetricsConfig {
+
+    private static final KeyValue NO_HANDLER = KeyValue.of("handler", "none");
+
+    /**
+     * Adds a {@code handler} tag (Controller.method) to http.server.requests so
+     * latency can be broken down per controller method, not only per URI.
+     */
+    @Bean
+    public ServerRequestObservationConvention handlerTaggingConvention() {
+        Map<Method, KeyValue> handlers = new ConcurrentHashMap<>();
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+                KeyValue tag = handler instanceof HandlerMethod hm
+                        ? handlers.computeIfAbsent(hm.getMethod(), m -> KeyValue.of("handler", m.getDeclaringClass().getSimpleName() + "." + m.getName()))
+                        : NO_HANDLER;
+                return super.getLowCardinalityKeyValues(context).and(tag);
+            }
+        };
+    }
+}
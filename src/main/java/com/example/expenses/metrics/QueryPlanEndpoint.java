@@ -0,0 +1,101 @@
+package com.example.expenses.metrics;
+
+import com.example.expenses.model.Expense;
+import com.example.expenses.model.ExpenseFilter;
+import com.example.expenses.model.ExpensePage;
+import com.example.expenses.repository.ExpenseRepository;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /actuator/queryplans runs EXPLAIN on one statement per shape of the
+ * filtered expense list and flags any that scan the whole table or a whole
+ * index instead of a range of ix_expenses_*_date; "ok" is false if one does.
+ * Plans depend on table statistics: check against realistic data (on a
+ * near-empty table the optimizer may rightly prefer a scan). Not in the
+ * default web exposure; ExpenseFilterPlanTest guards the same plans in tests.
+ */
+@Component
+@Endpoint(id = "queryplans")
+public class QueryPlanEndpoint {
+
+    private final ExpenseRepository repository;
+
+    public QueryPlanEndpoint(ExpenseRepository repository) {
+        this.repository = repository;
+    }
+
+    @ReadOperation
+    public Map<String, Object> check(@Nullable Long userId, @Nullable Long accountId, @Nullable Long categoryId) {
+        long user = userId != null ? userId : 1L;
+        long account = accountId != null ? accountId : 1L;
+        long category = categoryId != null ? categoryId : 1L;
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusMonths(3);
+
+        List<Map<String, Object>> plans = new ArrayList<>();
+        boolean ok = true;
+        ok &= explain(plans, "user", filter(user, null, null, null, null, false), null);
+        ok &= explain(plans, "user+dates", filter(user, from, to, null, null, false), null);
+        ok &= explain(plans, "user+account", filter(user, null, null, account, null, false), null);
+        ok &= explain(plans, "user+category+dates", filter(user, from, to, null, category, false), null);
+        ok &= explain(plans, "user+account+category", filter(user, null, null, account, category, false), null);
+        ok &= explain(plans, "user+amounts", filter(user, null, null, null, null, true), null);
+        ok &= explain(plans, "user+dates+cursor", filter(user, from, to, null, null, false), new ExpensePage.Cursor(to.minusDays(10), Long.MAX_VALUE));
+        ExpenseFilter byAmount = filter(user, from, to, null, null, true);
+        byAmount.setSort(ExpenseFilter.Sort.AMOUNT_DESC);
+        ok &= explain(plans, "user+dates+amounts sort=amount_desc", byAmount, null);
+        Expense amountCursor = new Expense();
+        amountCursor.setAmount(BigDecimal.valueOf(500));
+        amountCursor.setId(Long.MAX_VALUE);
+        ok &= explain(plans, "user+dates+amounts sort=amount_desc+cursor", byAmount, ExpensePage.Cursor.ofAmount(amountCursor));
+
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("ok", ok);
+        res.put("plans", plans);
+        return res;
+    }
+
+    private static ExpenseFilter filter(long userId, LocalDate from, LocalDate to, Long accountId, Long categoryId,
+                                        boolean amounts) {
+        ExpenseFilter f = new ExpenseFilter();
+        f.setUserId(userId);
+        f.setFrom(from);
+        f.setTo(to);
+        f.setAccountId(accountId);
+        f.setCategoryId(categoryId);
+        if (amounts) {
+            f.setMinAmount(BigDecimal.ONE);
+            f.setMaxAmount(BigDecimal.valueOf(1000));
+        }
+        return f;
+    }
+
+    private boolean explain(List<Map<String, Object>> plans, String shape, ExpenseFilter f, ExpensePage.Cursor after) {
+        boolean ok = true;
+        for (Map<String, Object> row : repository.findFilteredPlan(f, after, 51)) {
+            Map<String, Object> plan = new LinkedHashMap<>();
+            Object type = row.get("type");
+            plan.put("shape", shape);
+            plan.put("type", type);
+            plan.put("key", row.get("key"));
+            plan.put("rows", row.get("rows"));
+            plan.put("extra", row.get("Extra"));
+            // ALL = table scan, index = full index scan; range/ref are what the composite indexes give
+            boolean fullScan = "ALL".equals(type) || "index".equals(type);
+            plan.put("fullScan", fullScan);
+            ok &= !fullScan;
+            plans.add(plan);
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.expenses.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates JDBC statement timings by SQL fingerprint and writes the slow
+ * ones (at or above {@code sql.slow-query.threshold}) plus a random
+ * {@code sql.slow-query.sample-rate} share of the rest to the
+ * {@code sql.slow-query} logger, which logback-spring.xml routes through an
+ * async appender. Bind parameters are never logged.
+ */
+@Component
+public class QueryStatsRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger("sql.slow-query");
+
+    // Caps memory if something issues unparameterized SQL; the overflow is pooled under one entry
+    private static final int MAX_FINGERPRINTS = 1000;
+    private static final String OTHER = "(other)";
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public QueryStatsRecorder(@Value("${sql.slow-query.threshold:200ms}") Duration threshold,
+                              @Value("${sql.slow-query.sample-rate:0}") double sampleRate) {
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+    }
+
+    public void record(String sql, long nanos, boolean success) {
+        String fingerprint = SqlFingerprint.of(sql);
+        Stats s = stats.get(fingerprint);
+        if (s == null) {
+            s = stats.size() < MAX_FINGERPRINTS
+                    ? stats.computeIfAbsent(fingerprint, k -> new Stats(sql))
+                    : stats.computeIfAbsent(OTHER, k -> new Stats(OTHER));
+        }
+        s.count.increment();
+        s.totalNanos.add(nanos);
+        s.maxNanos.accumulate(nanos);
+        if (!success) {
+            s.errors.increment();
+        }
+
+        if (nanos >= thresholdNanos) {
+            log.warn("slow query {} ms{}: {}", nanos / 1_000_000, success ? "" : " (failed)", fingerprint);
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("sampled query {} us{}: {}", nanos / 1_000, success ? "" : " (failed)", fingerprint);
+        }
+    }
+
+    /** Fingerprints ordered by total time spent, highest first. */
+    public List<Map<String, Object>> top(int limit) {
+        List<Map.Entry<String, Stats>> entries = new ArrayList<>(stats.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, Stats> e) -> e.getValue().totalNanos.sum()).reversed());
+        List<Map<String, Object>> res = new ArrayList<>();
+        for (Map.Entry<String, Stats> e : entries.subList(0, Math.min(limit, entries.size()))) {
+            Stats s = e.getValue();
+            long count = s.count.sum();
+            long total = s.totalNanos.sum();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("fingerprint", e.getKey());
+            m.put("count", count);
+            m.put("errors", s.errors.sum());
+            m.put("totalMs", total / 1_000_000.0);
+            m.put("meanMs", count == 0 ? 0.0 : total / 1_000_000.0 / count);
+            m.put("maxMs", s.maxNanos.get() / 1_000_000.0);
+            m.put("example", s.example);
+            res.add(m);
+        }
+        return res;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private static final class Stats {
+        final String example;
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Stats(String example) {
+            this.example = example;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.expenses.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Times every public method of the {@code @Repository} beans as
+ * {@code repository.invocations{repository, method, outcome}}. Timers are
+ * resolved once per method and cached, so a call only pays for two
+ * nanoTime reads and the record.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final Map<Method, Timers> timers = new ConcurrentHashMap<>();
+    private final Function<Method, Timers> factory;
+
+    public RepositoryMetricsAspect(MeterRegistry registry) {
+        this.factory = m -> new Timers(registry, m);
+    }
+
+    @Around("within(@org.springframework.stereotype.Repository *) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint pjp) throws Throwable {
+        Timers t = timers.computeIfAbsent(((MethodSignature) pjp.getSignature()).getMethod(), factory);
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            Object result = pjp.proceed();
+            ok = true;
+            return result;
+        } finally {
+            (ok ? t.success : t.error).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class Timers {
+        final Timer success;
+        final Timer error;
+
+        Timers(MeterRegistry registry, Method m) {
+            this.success = timer(registry, m, "success");
+            this.error = timer(registry, m, "error");
+        }
+
+        private static Timer timer(MeterRegistry registry, Method m, String outcome) {
+            return Timer.builder("repository.invocations")
+                    .description("Repository method latency")
+                    .tag("repository", m.getDeclaringClass().getSimpleName())
+                    .tag("method", m.getName())
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+    }
+}
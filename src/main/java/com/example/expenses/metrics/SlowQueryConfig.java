@@ -0,0 +1,33 @@
+package com.example.expenses.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "sql.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryConfig {
+
+    /** Wraps the application DataSource so every statement is timed and fingerprinted. */
+    @Bean
+    public static BeanPostProcessor timedDataSourcePostProcessor(ObjectProvider<QueryStatsRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && !(bean instanceof TimedDataSource)) {
+                    return new TimedDataSource(ds, recorder.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(QueryStatsRecorder recorder) {
+        return new SlowQueryEndpoint(recorder);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.expenses.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /actuator/queries?limit=N lists the top SQL fingerprints by total time;
+ * DELETE /actuator/queries starts a fresh window.
+ */
+@Endpoint(id = "queries")
+public class SlowQueryEndpoint {
+
+    private final QueryStatsRecorder recorder;
+
+    public SlowQueryEndpoint(QueryStatsRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> top(@Nullable Integer limit) {
+        return recorder.top(limit == null ? 20 : Math.max(1, limit));
+    }
+
+    @DeleteOperation
+    public void reset() {
+        recorder.reset();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.expenses.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL text so statements that differ only in literals, IN-list
+ * length or the number of VALUES rows share one fingerprint. Results are
+ * memoized per distinct SQL string; the repositories build a small, fixed
+ * set of statements, so the memo stays tiny.
+ */
+public final class SqlFingerprint {
+
+    private static final int MEMO_LIMIT = 10_000;
+    private static final Map<String, String> MEMO = new ConcurrentHashMap<>();
+
+    private static final Pattern STRING = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("(?<![\\w$])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern SPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern VALUES_ROWS = Pattern.compile("(?i)\\bVALUES\\s*(\\([^()]*\\))(?:\\s*,\\s*\\([^()]*\\))+");
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) return "";
+        String fp = MEMO.get(sql);
+        if (fp == null) {
+            fp = normalize(sql);
+            if (MEMO.size() >= MEMO_LIMIT) {
+                // Only reachable with unparameterized SQL; start over rather than grow without bound
+                MEMO.clear();
+            }
+            MEMO.put(sql, fp);
+        }
+        return fp;
+    }
+
+    static String normalize(String sql) {
+        String s = STRING.matcher(sql).replaceAll("?");
+        s = NUMBER.matcher(s).replaceAll("?");
+        s = SPACE.matcher(s).replaceAll(" ").trim();
+        s = IN_LIST.matcher(s).replaceAll("IN (...)");
+        s = VALUES_ROWS.matcher(s).replaceAll("VALUES $1, ...");
+        return s;
+    }
+}
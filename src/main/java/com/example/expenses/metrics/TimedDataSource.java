@@ -0,0 +1,136 @@
+package com.example.expenses.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource wrapper that times every statement execution and reports it to
+ * the QueryStatsRecorder. Connections and statements are JDK proxies over the
+ * pool's objects; unwrap() still reaches the pool (Hikari metrics) and the
+ * driver (MySQL streaming), and fetch size, generated keys and batching pass
+ * straight through. For queries the time is until the ResultSet is returned.
+ */
+public class TimedDataSource extends DelegatingDataSource {
+
+    private static final ClassLoader LOADER = TimedDataSource.class.getClassLoader();
+
+    private final QueryStatsRecorder recorder;
+
+    public TimedDataSource(DataSource target, QueryStatsRecorder recorder) {
+        super(target);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection target) {
+        return (Connection) Proxy.newProxyInstance(LOADER, new Class<?>[]{Connection.class}, new ConnectionHandler(target));
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : target.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || target.isWrapperFor((Class<?>) args[0]);
+                default:
+            }
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof CallableStatement) {
+                return wrapStatement(result, CallableStatement.class, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement) {
+                return wrapStatement(result, PreparedStatement.class, (String) args[0]);
+            }
+            if (result instanceof Statement) {
+                return wrapStatement(result, Statement.class, null);
+            }
+            return result;
+        }
+    }
+
+    private Object wrapStatement(Object target, Class<?> type, String sql) {
+        return Proxy.newProxyInstance(LOADER, new Class<?>[]{type}, new StatementHandler((Statement) target, sql));
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        // Prepared SQL, or for plain statements the last SQL added to the batch
+        private String sql;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : target.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || target.isWrapperFor((Class<?>) args[0]);
+                case "addBatch":
+                    if (args != null && args.length == 1) sql = (String) args[0];
+                    return invokeTarget(target, method, args);
+                default:
+            }
+            if (!name.startsWith("execute")) {
+                return invokeTarget(target, method, args);
+            }
+            String executed = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+            long start = System.nanoTime();
+            boolean ok = false;
+            try {
+                Object result = invokeTarget(target, method, args);
+                ok = true;
+                return result;
+            } finally {
+                recorder.record(executed, System.nanoTime() - start, ok);
+            }
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.expenses.model;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public class Budget {
+    @NotNull
+    private Long userId;
+
+    @NotNull
+    private Long categoryId;
+
+    @NotNull
+    @DecimalMin("0.01")
+    private BigDecimal monthlyLimit;
+
+    // Read-only: category name and what was spent in the category this month (filled in on reads)
+    private String category;
+    private BigDecimal spent;
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+
+    public BigDecimal getMonthlyLimit() { return monthlyLimit; }
+    public void setMonthlyLimit(BigDecimal monthlyLimit) { this.monthlyLimit = monthlyLimit; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public BigDecimal getSpent() { return spent; }
+    public void setSpent(BigDecimal spent) { this.spent = spent; }
+}
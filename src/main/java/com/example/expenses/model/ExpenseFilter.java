@@ -0,0 +1,113 @@
+package com.example.expenses.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/** Server-side filters for one user's expenses; null fields do not restrict. */
+public class ExpenseFilter {
+
+    public enum Sort {
+        DATE_DESC("expense_date DESC, id DESC"),
+        DATE_ASC("expense_date ASC, id ASC"),
+        AMOUNT_DESC("amount DESC, id DESC"),
+        AMOUNT_ASC("amount ASC, id ASC");
+
+        private final String orderBy;
+
+        Sort(String orderBy) {
+            this.orderBy = orderBy;
+        }
+
+        public String getOrderBy() {
+            return orderBy;
+        }
+
+        public boolean byDate() {
+            return this == DATE_DESC || this == DATE_ASC;
+        }
+
+        /** Accepts date_desc, date-asc, AMOUNT_DESC, ...; null for anything else. */
+        public static Sort parse(String value) {
+            if (value == null) return null;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private Long userId;
+    private LocalDate from;
+    private LocalDate to;
+    private Long accountId;
+    private Long categoryId;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private Sort sort = Sort.DATE_DESC;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public void setSort(Sort sort) {
+        this.sort = sort;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.expenses.model;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+public class ExpensePage {
+    private List<Expense> items;
+
+    // Opaque keyset cursor for the next page; null when this is the last page
+    private String nextCursor;
+
+    public ExpensePage() {
+    }
+
+    public ExpensePage(List<Expense> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Expense> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Expense> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Position in the (expense_date, id) ordering, or in the (amount, id)
+     * ordering of the amount sorts. Encoded as base64url("yyyy-MM-dd:id") or
+     * base64url("a<amount>:id") so clients treat it as an opaque token.
+     */
+    public static class Cursor {
+        private final LocalDate expenseDate;
+        private final BigDecimal amount;
+        private final long id;
+
+        public Cursor(LocalDate expenseDate, long id) {
+            this(expenseDate, null, id);
+        }
+
+        private Cursor(LocalDate expenseDate, BigDecimal amount, long id) {
+            this.expenseDate = expenseDate;
+            this.amount = amount;
+            this.id = id;
+        }
+
+        public LocalDate getExpenseDate() { return expenseDate; }
+        public BigDecimal getAmount() { return amount; }
+        public long getId() { return id; }
+
+        /** True for an (amount, id) position; false for an (expense_date, id) one. */
+        public boolean byAmount() { return amount != null; }
+
+        public static Cursor of(Expense e) {
+            return new Cursor(e.getExpenseDate(), e.getId());
+        }
+
+        public static Cursor ofAmount(Expense e) {
+            return new Cursor(null, e.getAmount(), e.getId());
+        }
+
+        public String encode() {
+            String raw = (amount != null ? "a" + amount.toPlainString() : expenseDate.toString()) + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int sep = raw.indexOf(':');
+                long id = Long.parseLong(raw.substring(sep + 1));
+                if (raw.startsWith("a")) {
+                    return new Cursor(null, new BigDecimal(raw.substring(1, sep)), id);
+                }
+                return new Cursor(LocalDate.parse(raw.substring(0, sep)), id);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("invalid cursor", e);
+            }
+        }
+    }
+}
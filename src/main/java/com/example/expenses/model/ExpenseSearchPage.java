@@ -0,0 +1,47 @@
+package com.example.expenses.model;
+
+import java.util.List;
+
+public class ExpenseSearchPage {
+    // Best match first
+    private List<Expense> items;
+
+    // Matches across all pages
+    private int total;
+
+    // Offset of the next page; null when this is the last page
+    private Integer nextOffset;
+
+    public ExpenseSearchPage() {
+    }
+
+    public ExpenseSearchPage(List<Expense> items, int total, Integer nextOffset) {
+        this.items = items;
+        this.total = total;
+        this.nextOffset = nextOffset;
+    }
+
+    public List<Expense> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Expense> items) {
+        this.items = items;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public Integer getNextOffset() {
+        return nextOffset;
+    }
+
+    public void setNextOffset(Integer nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.expenses.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+    private long imported;
+    private long failed;
+
+    // First N per-row failures; failed counts all of them
+    private List<RowError> errors = new ArrayList<>();
+
+    private long elapsedMs;
+    private double rowsPerSecond;
+
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+    public static class RowError {
+        private int line;
+        private String error;
+
+        public RowError() {
+        }
+
+        public RowError(int line, String error) {
+            this.line = line;
+            this.error = error;
+        }
+
+        public int getLine() { return line; }
+        public void setLine(int line) { this.line = line; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.expenses.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class SpendingAlert {
+
+    public enum Type {
+        BUDGET_WARNING,  // month-to-date spend crossed budgets.warn-ratio of the limit
+        BUDGET_EXCEEDED, // month-to-date spend crossed the limit
+        ANOMALY          // expense far above the user's usual amount in the category
+    }
+
+    private Type type;
+    private Long userId;
+    private Long categoryId;
+    private String category;
+
+    // The expense that triggered the alert
+    private Long expenseId;
+    private BigDecimal amount;
+
+    // Budget alerts: month ("yyyy-MM"), spend after the expense and the limit
+    private String period;
+    private BigDecimal spent;
+    private BigDecimal monthlyLimit;
+
+    // Anomaly alerts: the category's mean amount before the expense and how many standard deviations above it
+    private Double mean;
+    private Double zScore;
+
+    private Instant createdAt;
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Long getExpenseId() { return expenseId; }
+    public void setExpenseId(Long expenseId) { this.expenseId = expenseId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public BigDecimal getSpent() { return spent; }
+    public void setSpent(BigDecimal spent) { this.spent = spent; }
+
+    public BigDecimal getMonthlyLimit() { return monthlyLimit; }
+    public void setMonthlyLimit(BigDecimal monthlyLimit) { this.monthlyLimit = monthlyLimit; }
+
+    public Double getMean() { return mean; }
+    public void setMean(Double mean) { this.mean = mean; }
+
+    public Double getZScore() { return zScore; }
+    public void setZScore(Double zScore) { this.zScore = zScore; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,37 @@
+package com.example.expenses.model;
+
+import java.math.BigDecimal;
+
+public class SummaryBucket {
+    // Group key: "yyyy-MM" for months, the id for categories and accounts (null for unlinked rows)
+    private String key;
+
+    // Display name (category / account name; same as key for months)
+    private String label;
+
+    private BigDecimal total;
+
+    private long count;
+
+    public SummaryBucket() {
+    }
+
+    public SummaryBucket(String key, String label, BigDecimal total, long count) {
+        this.key = key;
+        this.label = label;
+        this.total = total;
+        this.count = count;
+    }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
@@ -1,7 +1,6 @@
 package com.example.expenses.repository;
 
 import com.example.expenses.model.Account;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -23,14 +22,14 @@ public class AccountRepository {
     public List<Account> findAll() {
         return jdbcTemplate.query(
                 "SELECT id, user_id AS userId, name, type, currency_code AS currencyCode FROM accounts ORDER BY id",
-                new BeanPropertyRowMapper<>(Account.class)
+                RowMappers.ACCOUNT
         );
     }
 
     public Optional<Account> findById(Long id) {
         List<Account> list = jdbcTemplate.query(
                 "SELECT id, user_id AS userId, name, type, currency_code AS currencyCode FROM accounts WHERE id = ?",
-                new BeanPropertyRowMapper<>(Account.class),
+                RowMappers.ACCOUNT,
                 id
         );
         return list.stream().findFirst();
@@ -39,7 +38,7 @@ public class AccountRepository {
     public List<Account> findByUserId(Long userId) {
         return jdbcTemplate.query(
                 "SELECT id, user_id AS userId, name, type, currency_code AS currencyCode FROM accounts WHERE user_id = ? ORDER BY id",
-                new BeanPropertyRowMapper<>(Account.class),
+                RowMappers.ACCOUNT,
                 userId
         );
     }
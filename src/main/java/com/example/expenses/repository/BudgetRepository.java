@@ -0,0 +1,55 @@
+package com.example.expenses.repository;
+
+import com.example.expenses.model.Budget;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class BudgetRepository {
+    private static final RowMapper<Budget> BUDGET = (rs, i) -> {
+        Budget b = new Budget();
+        b.setUserId(rs.getLong("user_id"));
+        b.setCategoryId(rs.getLong("category_id"));
+        b.setCategory(rs.getString("category"));
+        b.setMonthlyLimit(rs.getBigDecimal("monthly_limit"));
+        return b;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BudgetRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Budget> findAll() {
+        return jdbcTemplate.query(
+                "SELECT b.user_id, b.category_id, c.name AS category, b.monthly_limit FROM budgets b "
+                        + "LEFT JOIN categories c ON c.id = b.category_id ORDER BY b.user_id, b.category_id",
+                BUDGET
+        );
+    }
+
+    public List<Budget> findByUserId(Long userId) {
+        return jdbcTemplate.query(
+                "SELECT b.user_id, b.category_id, c.name AS category, b.monthly_limit FROM budgets b "
+                        + "LEFT JOIN categories c ON c.id = b.category_id WHERE b.user_id = ? ORDER BY c.name",
+                BUDGET,
+                userId
+        );
+    }
+
+    public void upsert(Budget b) {
+        jdbcTemplate.update(
+                "INSERT INTO budgets (user_id, category_id, monthly_limit) VALUES (?, ?, ?) "
+                        + "ON DUPLICATE KEY UPDATE monthly_limit = VALUES(monthly_limit)",
+                b.getUserId(), b.getCategoryId(), b.getMonthlyLimit()
+        );
+    }
+
+    public int delete(Long userId, Long categoryId) {
+        return jdbcTemplate.update("DELETE FROM budgets WHERE user_id = ? AND category_id = ?", userId, categoryId);
+    }
+}
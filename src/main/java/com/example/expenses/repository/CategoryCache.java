@@ -0,0 +1,153 @@
+package com.example.expenses.repository;
+
+import com.example.expenses.event.CategoriesChangedEvent;
+import com.example.expenses.model.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process name -> id dictionary for the categories table, so an expense
+ * save normally resolves its category link without touching the database.
+ * Misses fall back to INSERT IGNORE + SELECT (auto-creating AI-suggested
+ * categories, as before) and are cached once the surrounding transaction
+ * commits.
+ */
+@Component
+public class CategoryCache {
+    private static final Logger log = LoggerFactory.getLogger(CategoryCache.class);
+
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher events;
+
+    public CategoryCache(JdbcTemplate jdbcTemplate, CategoryRepository categoryRepository, ApplicationEventPublisher events) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryRepository = categoryRepository;
+        this.events = events;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        try {
+            for (Category c : categoryRepository.findAll()) {
+                ids.put(c.getName(), c.getId());
+            }
+            log.info("Category cache warmed with {} entries", ids.size());
+        } catch (DataAccessException e) {
+            // Not fatal: entries are filled on demand
+            log.warn("Category cache warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    public Long resolveId(String name) {
+        if (name == null) return null;
+        Long id = ids.get(name);
+        if (id != null) return id;
+
+        // Ensure category exists in lookup (auto-creates AI-suggested categories)
+        if (jdbcTemplate.update("INSERT IGNORE INTO categories (name) VALUES (?)", name) > 0) {
+            events.publishEvent(new CategoriesChangedEvent(null));
+        }
+        try {
+            id = jdbcTemplate.queryForObject("SELECT id FROM categories WHERE name = ?", Long.class, name);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+        put(name, id);
+        return id;
+    }
+
+    /**
+     * Bulk variant for imports: all misses are created with one batched
+     * INSERT IGNORE and read back with a single IN query.
+     */
+    public Map<String, Long> resolveIds(Collection<String> names) {
+        Map<String, Long> resolved = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String name : names) {
+            if (name == null || resolved.containsKey(name)) continue;
+            Long id = ids.get(name);
+            if (id != null) {
+                resolved.put(name, id);
+            } else {
+                missing.add(name);
+            }
+        }
+        if (missing.isEmpty()) return resolved;
+
+        int[][] inserted = jdbcTemplate.batchUpdate("INSERT IGNORE INTO categories (name) VALUES (?)", missing, missing.size(),
+                (ps, name) -> ps.setString(1, name));
+        // Row counts may be unknown (SUCCESS_NO_INFO) with rewritten batches; only a definite 0 means nothing new
+        boolean created = false;
+        for (int[] chunk : inserted) {
+            for (int n : chunk) created |= n != 0;
+        }
+        if (created) {
+            events.publishEvent(new CategoriesChangedEvent(null));
+        }
+        String in = String.join(",", Collections.nCopies(missing.size(), "?"));
+        jdbcTemplate.query("SELECT id, name FROM categories WHERE name IN (" + in + ")", rs -> {
+            resolved.put(rs.getString(2), rs.getLong(1));
+        }, missing.toArray());
+        // The collation is case-insensitive, so map requested spellings onto what the database returned
+        for (String name : missing) {
+            Long id = resolved.get(name);
+            if (id == null) {
+                for (Map.Entry<String, Long> entry : resolved.entrySet()) {
+                    if (entry.getKey().equalsIgnoreCase(name)) {
+                        id = entry.getValue();
+                        break;
+                    }
+                }
+                resolved.put(name, id);
+            }
+            put(name, id);
+        }
+        return resolved;
+    }
+
+    /**
+     * Records a mapping, deferred to commit when called inside a transaction so
+     * a rolled-back insert never leaves a dangling id behind.
+     */
+    public void put(String name, Long id) {
+        if (name == null || id == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.put(name, id);
+                }
+            });
+        } else {
+            ids.put(name, id);
+        }
+    }
+
+    // Drops every name mapped to the category (its name may have changed or the row is gone)
+    public void invalidate(Long id) {
+        ids.values().removeIf(id::equals);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
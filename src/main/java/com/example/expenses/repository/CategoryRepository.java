@@ -1,7 +1,8 @@
 package com.example.expenses.repository;
 
+import com.example.expenses.event.CategoriesChangedEvent;
 import com.example.expenses.model.Category;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -15,22 +16,24 @@ import java.util.Optional;
 @Repository
 public class CategoryRepository {
     private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher events;
 
-    public CategoryRepository(JdbcTemplate jdbcTemplate) {
+    public CategoryRepository(JdbcTemplate jdbcTemplate, ApplicationEventPublisher events) {
         this.jdbcTemplate = jdbcTemplate;
+        this.events = events;
     }
 
     public List<Category> findAll() {
         return jdbcTemplate.query(
                 "SELECT id, name, type, color FROM categories ORDER BY name",
-                new BeanPropertyRowMapper<>(Category.class)
+                RowMappers.CATEGORY
         );
     }
 
     public Optional<Category> findById(Long id) {
         List<Category> list = jdbcTemplate.query(
                 "SELECT id, name, type, color FROM categories WHERE id = ?",
-                new BeanPropertyRowMapper<>(Category.class), id
+                RowMappers.CATEGORY, id
         );
         return list.stream().findFirst();
     }
@@ -45,17 +48,27 @@ public class CategoryRepository {
             ps.setString(3, c.getColor());
             return ps;
         }, kh);
-        return kh.getKey().longValue();
+        Long id = kh.getKey().longValue();
+        events.publishEvent(new CategoriesChangedEvent(id));
+        return id;
     }
 
     public int update(Long id, Category c) {
-        return jdbcTemplate.update(
+        int updated = jdbcTemplate.update(
                 "UPDATE categories SET name = ?, type = COALESCE(?, type), color = ? WHERE id = ?",
                 c.getName(), c.getType(), c.getColor(), id
         );
+        if (updated > 0) {
+            events.publishEvent(new CategoriesChangedEvent(id));
+        }
+        return updated;
     }
 
     public int delete(Long id) {
-        return jdbcTemplate.update("DELETE FROM categories WHERE id = ?", id);
+        int deleted = jdbcTemplate.update("DELETE FROM categories WHERE id = ?", id);
+        if (deleted > 0) {
+            events.publishEvent(new CategoriesChangedEvent(id));
+        }
+        return deleted;
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.example.expenses.repository;
+
+import com.example.expenses.event.CategoriesChangedEvent;
+import com.example.expenses.event.ExpensesChangedEvent;
+import com.example.expenses.event.ExpensesPurgedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory change counters behind the ETags of the list endpoints: one per
+ * user for expenses, one for all expenses and one for categories. They are
+ * bumped after commit, so a version is never handed out for data a reader
+ * cannot see yet. Counters restart with the process; the startup stamp in
+ * every tag keeps old tags from matching after a restart. Invalidating every
+ * user bumps one epoch that is part of each per-user tag, so it also covers
+ * users with no counter yet (their tags were issued at version 0).
+ *
+ * Counters are per instance: with several instances behind a load balancer a
+ * write on one does not invalidate tags issued by another.
+ */
+@Component
+public class DataVersions {
+
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, AtomicLong> users = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    private final AtomicLong allExpenses = new AtomicLong();
+    private final AtomicLong categories = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        for (Long userId : event.userIds()) {
+            bumpUser(userId);
+        }
+        allExpenses.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesPurged(ExpensesPurgedEvent event) {
+        bumpExpenses(null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoriesChanged(CategoriesChangedEvent event) {
+        categories.incrementAndGet();
+    }
+
+    /** Invalidates one user's expense tags, or every user's when userId is null. */
+    public void bumpExpenses(Long userId) {
+        if (userId != null) {
+            bumpUser(userId);
+        } else {
+            epoch.incrementAndGet();
+        }
+        allExpenses.incrementAndGet();
+    }
+
+    private void bumpUser(Long userId) {
+        users.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /** Tag for a user's expenses (all expenses when userId is null). */
+    public String expensesTag(Long userId) {
+        if (userId == null) {
+            return '"' + boot + "-e" + allExpenses.get() + '"';
+        }
+        AtomicLong v = users.get(userId);
+        return '"' + boot + "-u" + userId + "." + epoch.get() + "." + (v != null ? v.get() : 0) + '"';
+    }
+
+    /** Tag for data derived from a user's expenses and category names (summaries). */
+    public String summaryTag(Long userId) {
+        AtomicLong v = users.get(userId);
+        return '"' + boot + "-s" + userId + "." + epoch.get() + "." + (v != null ? v.get() : 0) + "." + categories.get() + '"';
+    }
+
+    public String categoriesTag() {
+        return '"' + boot + "-c" + categories.get() + '"';
+    }
+}
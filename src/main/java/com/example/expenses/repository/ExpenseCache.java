@@ -0,0 +1,136 @@
+package com.example.expenses.repository;
+
+import com.example.expenses.event.ExpensesChangedEvent;
+import com.example.expenses.event.ExpensesPurgedEvent;
+import com.example.expenses.model.Expense;
+import com.example.expenses.routing.PrimaryScope;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Hot-set cache for ExpenseRepository.findAllByUserId and findById, bounded
+ * by an estimate of retained bytes (expenses.cache.max-size) with Caffeine's
+ * W-TinyLFU eviction, so a burst of one-off users cannot flush the regulars.
+ * Entries of the touched users and rows are invalidated after every committed
+ * write; a load racing an invalidation of the same key is discarded, and
+ * loads always read the primary (a lagging replica could return the row as
+ * it was before the write), so a stale entry is never kept. Cached lists are immutable and shared: callers
+ * must not modify them or their expenses. A max-size of 0 turns it off.
+ */
+@Component
+public class ExpenseCache {
+
+    private final long maxBytes;
+    private final Cache<Key, Object> cache;
+
+    public ExpenseCache(@Value("${expenses.cache.max-size:64MB}") DataSize maxSize, MeterRegistry registry) {
+        this.maxBytes = maxSize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key k, Object v) -> weigh(v))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "expenses");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        for (Long userId : event.userIds()) {
+            cache.invalidate(new Key(Key.USER, userId));
+        }
+        for (Expense e : event.getBefore()) {
+            cache.invalidate(new Key(Key.EXPENSE, e.getId()));
+        }
+        for (Expense e : event.getAfter()) {
+            cache.invalidate(new Key(Key.EXPENSE, e.getId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesPurged(ExpensesPurgedEvent event) {
+        cache.invalidateAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    List<Expense> userExpenses(Long userId, Supplier<List<Expense>> loader) {
+        if (bypass()) return loader.get();
+        return (List<Expense>) cache.get(new Key(Key.USER, userId), k -> List.copyOf(PrimaryScope.call(loader)));
+    }
+
+    /** Null when there is no such expense (absence is not cached). */
+    Expense expense(Long id, Supplier<Expense> loader) {
+        if (bypass()) return loader.get();
+        return (Expense) cache.get(new Key(Key.EXPENSE, id), k -> PrimaryScope.call(loader));
+    }
+
+    // Inside a write transaction a load could see (and cache) rows that are later rolled back
+    private boolean bypass() {
+        return maxBytes == 0 || (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats s = cache.stats();
+        Map<String, Object> res = new LinkedHashMap<>();
+        res.put("hits", s.hitCount());
+        res.put("misses", s.missCount());
+        res.put("hitRate", s.requestCount() == 0 ? 0.0 : s.hitRate());
+        res.put("evictions", s.evictionCount());
+        res.put("entries", cache.estimatedSize());
+        res.put("bytes", cache.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L));
+        res.put("maxBytes", maxBytes);
+        return res;
+    }
+
+    // Rough retained size: object headers and fields plus two bytes per char (Latin-1 strings take less)
+    private static int weigh(Object value) {
+        if (value instanceof List<?> list) {
+            long bytes = 48 + 8L * list.size();
+            for (Object e : list) bytes += weigh(e);
+            return (int) Math.min(bytes, Integer.MAX_VALUE);
+        }
+        Expense e = (Expense) value;
+        return 240 + 2 * (length(e.getTitle()) + length(e.getCategory()) + length(e.getNotes()));
+    }
+
+    private static int length(String s) {
+        return s == null ? 0 : s.length();
+    }
+
+    private static final class Key {
+        static final byte USER = 0;
+        static final byte EXPENSE = 1;
+
+        final byte kind;
+        final Long id;
+
+        Key(byte kind, Long id) {
+            this.kind = kind;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && k.kind == kind && Objects.equals(k.id, id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * kind + Objects.hashCode(id);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.expenses.repository;
+
+import com.example.expenses.event.ExpensesPurgedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps a RANGE COLUMNS(expense_date) partitioned expenses table ahead of
+ * time: at startup and then daily it splits the catch-all MAXVALUE partition
+ * (empty while the job keeps up, so the split copies nothing) until
+ * partitions exist for the next expenses.partitions.ahead months or years.
+ * With retention-months set, partitions entirely older than that are
+ * dropped, which purges their rows without a row-by-row DELETE, and the
+ * matching rollup periods are deleted. Does nothing while the table is not
+ * partitioned. A named lock keeps concurrent instances from racing the DDL.
+ */
+@Component
+@ConditionalOnProperty(name = "expenses.partitions.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpensePartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpensePartitionMaintenance.class);
+    private static final String LOCK = "expenses_partition_maintenance";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher events;
+    private final boolean yearly;
+    private final int ahead;
+    private final int retentionMonths;
+
+    public ExpensePartitionMaintenance(JdbcTemplate jdbcTemplate, ApplicationEventPublisher events,
+                                       @Value("${expenses.partitions.granularity:month}") String granularity,
+                                       @Value("${expenses.partitions.ahead:3}") int ahead,
+                                       @Value("${expenses.partitions.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.events = events;
+        this.yearly = "year".equalsIgnoreCase(granularity.trim());
+        this.ahead = Math.max(1, ahead);
+        this.retentionMonths = Math.max(0, retentionMonths);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        runQuietly();
+    }
+
+    @Scheduled(cron = "${expenses.partitions.cron:0 30 3 * * *}")
+    public void scheduled() {
+        runQuietly();
+    }
+
+    private void runQuietly() {
+        try {
+            run(LocalDate.now());
+        } catch (DataAccessException e) {
+            log.warn("Expense partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /** Creates (and, with retention, drops) partitions as of the given day; returns what changed. */
+    public synchronized Map<String, Object> run(LocalDate today) {
+        List<String> created = new ArrayList<>();
+        List<String> dropped = new ArrayList<>();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("created", created);
+        report.put("dropped", dropped);
+        LocalDate purgedBefore = jdbcTemplate.execute((ConnectionCallback<LocalDate>) con -> {
+            if (!lock(con)) {
+                report.put("skipped", "maintenance running elsewhere");
+                return null;
+            }
+            try {
+                return maintain(con, today, created, dropped, report);
+            } finally {
+                unlock(con);
+            }
+        });
+        if (purgedBefore != null) {
+            jdbcTemplate.update("DELETE FROM expense_rollups WHERE period < ?", ExpenseRollupRepository.period(purgedBefore));
+            events.publishEvent(new ExpensesPurgedEvent(purgedBefore));
+        }
+        if (!created.isEmpty() || !dropped.isEmpty()) {
+            log.info("Expense partitions created {} dropped {}", created, dropped);
+        }
+        return report;
+    }
+
+    private LocalDate maintain(Connection con, LocalDate today, List<String> created, List<String> dropped,
+                               Map<String, Object> report) throws SQLException {
+        List<String> names = new ArrayList<>();
+        List<LocalDate> bounds = new ArrayList<>(); // null = MAXVALUE
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                     + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'expenses' ORDER BY PARTITION_ORDINAL_POSITION")) {
+            while (rs.next()) {
+                if (rs.getString(1) == null) break; // not partitioned
+                names.add(rs.getString(1));
+                String bound = rs.getString(2).replace("'", "").trim();
+                bounds.add(bound.equalsIgnoreCase("MAXVALUE") ? null : LocalDate.parse(bound.substring(0, 10)));
+            }
+        }
+        report.put("partitioned", !names.isEmpty());
+        if (names.isEmpty()) return null;
+
+        // Create: from the last bounded partition up to the horizon
+        LocalDate last = null;
+        for (LocalDate b : bounds) if (b != null && (last == null || b.isAfter(last))) last = b;
+        LocalDate horizon = plusPeriods(truncate(today), ahead);
+        LocalDate next = last != null ? last : truncate(today);
+        StringBuilder defs = new StringBuilder();
+        while (!next.isAfter(horizon)) {
+            LocalDate upper = plusPeriods(next, 1);
+            String name = "p" + next.format(DateTimeFormatter.ofPattern(yearly ? "yyyy" : "yyyyMM", Locale.ROOT));
+            defs.append("PARTITION ").append(name).append(" VALUES LESS THAN ('").append(upper).append("'), ");
+            created.add(name);
+            next = upper;
+        }
+        if (!created.isEmpty()) {
+            int catchAll = bounds.indexOf(null);
+            String sql = catchAll >= 0
+                    ? "ALTER TABLE expenses REORGANIZE PARTITION " + names.get(catchAll) + " INTO (" + defs
+                        + "PARTITION " + names.get(catchAll) + " VALUES LESS THAN (MAXVALUE))"
+                    : "ALTER TABLE expenses ADD PARTITION (" + defs.substring(0, defs.length() - 2) + ")";
+            try (Statement st = con.createStatement()) {
+                st.execute(sql);
+            }
+        }
+
+        // Drop: partitions whose whole range is older than the retention window (never the last one)
+        if (retentionMonths == 0) return null;
+        LocalDate cutoff = today.withDayOfMonth(1).minusMonths(retentionMonths);
+        LocalDate purgedBefore = null;
+        for (int i = 0; i < names.size() - 1; i++) {
+            LocalDate b = bounds.get(i);
+            if (b != null && !b.isAfter(cutoff)) {
+                dropped.add(names.get(i));
+                purgedBefore = b;
+            }
+        }
+        if (!dropped.isEmpty()) {
+            try (Statement st = con.createStatement()) {
+                st.execute("ALTER TABLE expenses DROP PARTITION " + String.join(", ", dropped));
+            }
+        }
+        return purgedBefore;
+    }
+
+    private LocalDate truncate(LocalDate d) {
+        return yearly ? d.withDayOfYear(1) : d.withDayOfMonth(1);
+    }
+
+    private LocalDate plusPeriods(LocalDate d, int n) {
+        return yearly ? d.plusYears(n) : d.plusMonths(n);
+    }
+
+    private static boolean lock(Connection con) throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT GET_LOCK('" + LOCK + "', 0)")) {
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+
+    private static void unlock(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("DO RELEASE_LOCK('" + LOCK + "')");
+        }
+    }
+}
@@ -1,112 +1,397 @@
 package com.example.expenses.repository;
 
+import com.example.expenses.event.ExpensesChangedEvent;
 import com.example.expenses.model.Expense;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import com.example.expenses.model.ExpenseFilter;
+import com.example.expenses.model.ExpensePage;
+import com.example.expenses.model.SummaryBucket;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
 public class ExpenseRepository {
+    // Widest range a MySQL DATE column accepts; used when a query has no explicit bound
+    public static final LocalDate MIN_DATE = LocalDate.of(1000, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO expenses (title, amount, category, category_id, expense_date, notes, user_id, account_id) VALUES (?,?,?,?,?,?,?,?)";
+
     private final JdbcTemplate jdbcTemplate;
+    private final ExpenseRollupRepository rollups;
+    private final CategoryCache categoryCache;
+    private final ApplicationEventPublisher events;
+    private final ExpenseCache cache;
 
-    public ExpenseRepository(JdbcTemplate jdbcTemplate) {
+    public ExpenseRepository(JdbcTemplate jdbcTemplate, ExpenseRollupRepository rollups, CategoryCache categoryCache,
+                             ApplicationEventPublisher events, ExpenseCache cache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.rollups = rollups;
+        this.categoryCache = categoryCache;
+        this.events = events;
+        this.cache = cache;
     }
 
     public List<Expense> findAll() {
         return jdbcTemplate.query(
                 "SELECT id, title, amount, category, category_id AS categoryId, user_id AS userId, account_id AS accountId, expense_date AS expenseDate, notes FROM expenses ORDER BY expense_date DESC",
-                new BeanPropertyRowMapper<>(Expense.class)
+                RowMappers.EXPENSE
         );
     }
 
+    /** Served from ExpenseCache when the user is in the hot set; the returned list is immutable. */
     public List<Expense> findAllByUserId(Long userId) {
-        return jdbcTemplate.query(
+        return cache.userExpenses(userId, () -> jdbcTemplate.query(
                 "SELECT id, title, amount, category, category_id AS categoryId, user_id AS userId, account_id AS accountId, expense_date AS expenseDate, notes FROM expenses WHERE user_id = ? ORDER BY expense_date DESC",
-                new BeanPropertyRowMapper<>(Expense.class),
+                RowMappers.EXPENSE,
                 userId
-        );
+        ));
+    }
+
+    /**
+     * One keyset page in (expense_date DESC, id DESC) order. With a userId the
+     * range scan runs backwards over ix_expenses_user_date (InnoDB appends the
+     * primary key to secondary indexes, so the id tie-break needs no filesort).
+     * Pass a null afterDate for the first page.
+     */
+    public List<Expense> findPage(Long userId, LocalDate afterDate, Long afterId, int limit) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, title, amount, category, category_id AS categoryId, user_id AS userId, account_id AS accountId, expense_date AS expenseDate, notes FROM expenses WHERE 1=1");
+        List<Object> args = new ArrayList<>();
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+            args.add(userId);
+        }
+        if (afterDate != null) {
+            // Written as a range plus tie-break so the optimizer can still use the index range
+            sql.append(" AND expense_date <= ? AND (expense_date < ? OR id < ?)");
+            args.add(Date.valueOf(afterDate));
+            args.add(Date.valueOf(afterDate));
+            args.add(afterId);
+        }
+        sql.append(" ORDER BY expense_date DESC, id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), RowMappers.EXPENSE, args.toArray());
+    }
+
+    /**
+     * Filtered list for one user. The SQL is assembled from fixed fragments
+     * with every value bound, so each filter combination is one statement text
+     * that the driver's prepared-statement cache can reuse. The WHERE clause is
+     * led like the summaries' (account, then category, then user) so each
+     * combination range-scans the matching ix_expenses_*_date index; amount
+     * bounds are checked on the rows that range yields. Pages continue after the
+     * last row's cursor: (expense_date, id) for date sorts, (amount, id) for
+     * amount sorts; pass null for the first page.
+     */
+    public List<Expense> findFiltered(ExpenseFilter filter, ExpensePage.Cursor after, Integer limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = filteredSql(filter, after, limit, args);
+        return jdbcTemplate.query(sql, RowMappers.EXPENSE, args.toArray());
+    }
+
+    /** EXPLAIN rows for the statement findFiltered would run with these arguments. */
+    public List<Map<String, Object>> findFilteredPlan(ExpenseFilter filter, ExpensePage.Cursor after, Integer limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = filteredSql(filter, after, limit, args);
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, args.toArray());
+    }
+
+    private static String filteredSql(ExpenseFilter f, ExpensePage.Cursor after, Integer limit, List<Object> args) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, title, amount, category, category_id AS categoryId, user_id AS userId, account_id AS accountId, expense_date AS expenseDate, notes FROM expenses WHERE ");
+        sql.append(summaryScope(f.getUserId(), f.getFrom(), f.getTo(), f.getAccountId(), f.getCategoryId(), args));
+        if (f.getMinAmount() != null) {
+            sql.append(" AND amount >= ?");
+            args.add(f.getMinAmount());
+        }
+        if (f.getMaxAmount() != null) {
+            sql.append(" AND amount <= ?");
+            args.add(f.getMaxAmount());
+        }
+        if (after != null && f.getSort().byDate() && !after.byAmount()) {
+            sql.append(f.getSort() == ExpenseFilter.Sort.DATE_DESC
+                    ? " AND expense_date <= ? AND (expense_date < ? OR id < ?)"
+                    : " AND expense_date >= ? AND (expense_date > ? OR id > ?)");
+            args.add(Date.valueOf(after.getExpenseDate()));
+            args.add(Date.valueOf(after.getExpenseDate()));
+            args.add(after.getId());
+        } else if (after != null && !f.getSort().byDate() && after.byAmount()) {
+            sql.append(f.getSort() == ExpenseFilter.Sort.AMOUNT_DESC
+                    ? " AND amount <= ? AND (amount < ? OR id < ?)"
+                    : " AND amount >= ? AND (amount > ? OR id > ?)");
+            args.add(after.getAmount());
+            args.add(after.getAmount());
+            args.add(after.getId());
+        }
+        sql.append(" ORDER BY ").append(f.getSort().getOrderBy());
+        if (limit != null) {
+            sql.append(" LIMIT ?");
+            args.add(limit);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Streams rows to the consumer straight off the ResultSet instead of
+     * building a list. Integer.MIN_VALUE as fetch size switches MySQL
+     * Connector/J to row-by-row streaming on a forward-only cursor, so heap use
+     * stays flat no matter how many rows match. The connection is held until
+     * the consumer has seen the last row.
+     */
+    public void streamAll(Long userId, Consumer<Expense> consumer) {
+        String sql = "SELECT id, title, amount, category, category_id AS categoryId, user_id AS userId, account_id AS accountId, expense_date AS expenseDate, notes FROM expenses"
+                + (userId != null ? " WHERE user_id = ?" : "")
+                + " ORDER BY expense_date DESC, id DESC";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            if (userId != null) {
+                ps.setLong(1, userId);
+            }
+            return ps;
+        }, rs -> {
+            consumer.accept(RowMappers.EXPENSE.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    public SummaryBucket summarizeTotal(Long userId, LocalDate from, LocalDate to, Long accountId, Long categoryId) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT COALESCE(SUM(amount), 0), COUNT(*) FROM expenses WHERE "
+                + summaryScope(userId, from, to, accountId, categoryId, args);
+        return jdbcTemplate.queryForObject(sql,
+                (rs, i) -> new SummaryBucket("total", "total", rs.getBigDecimal(1), rs.getLong(2)),
+                args.toArray());
+    }
+
+    public List<SummaryBucket> summarizeByMonth(Long userId, LocalDate from, LocalDate to, Long accountId, Long categoryId) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT DATE_FORMAT(expense_date, '%Y-%m') AS period, SUM(amount), COUNT(*) FROM expenses WHERE "
+                + summaryScope(userId, from, to, accountId, categoryId, args)
+                + " GROUP BY period ORDER BY period";
+        return jdbcTemplate.query(sql,
+                (rs, i) -> new SummaryBucket(rs.getString(1), rs.getString(1), rs.getBigDecimal(2), rs.getLong(3)),
+                args.toArray());
+    }
+
+    public List<SummaryBucket> summarizeByCategory(Long userId, LocalDate from, LocalDate to, Long accountId, Long categoryId) {
+        List<Object> args = new ArrayList<>();
+        // Aggregate first, then label the handful of groups; legacy rows without category_id keep their free-text name
+        String sql = "SELECT s.category_id, COALESCE(c.name, s.category), s.total, s.cnt FROM ("
+                + "SELECT category_id, MIN(category) AS category, SUM(amount) AS total, COUNT(*) AS cnt FROM expenses WHERE "
+                + summaryScope(userId, from, to, accountId, categoryId, args)
+                + " GROUP BY category_id) s LEFT JOIN categories c ON c.id = s.category_id ORDER BY s.total DESC";
+        return jdbcTemplate.query(sql,
+                (rs, i) -> new SummaryBucket(rs.getString(1), rs.getString(2), rs.getBigDecimal(3), rs.getLong(4)),
+                args.toArray());
+    }
+
+    public List<SummaryBucket> summarizeByAccount(Long userId, LocalDate from, LocalDate to, Long accountId, Long categoryId) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT s.account_id, a.name, s.total, s.cnt FROM ("
+                + "SELECT account_id, SUM(amount) AS total, COUNT(*) AS cnt FROM expenses WHERE "
+                + summaryScope(userId, from, to, accountId, categoryId, args)
+                + " GROUP BY account_id) s LEFT JOIN accounts a ON a.id = s.account_id ORDER BY s.total DESC";
+        return jdbcTemplate.query(sql,
+                (rs, i) -> new SummaryBucket(rs.getString(1), rs.getString(2), rs.getBigDecimal(3), rs.getLong(4)),
+                args.toArray());
+    }
+
+    /**
+     * WHERE clause for summaries, led by the equality column of the composite
+     * index that fits: (account_id, expense_date) or (category_id, expense_date)
+     * when narrowed to one account/category, otherwise (user_id, expense_date).
+     * The date range is always bound so the scan stays a range scan.
+     */
+    private static String summaryScope(Long userId, LocalDate from, LocalDate to, Long accountId, Long categoryId, List<Object> args) {
+        StringBuilder where = new StringBuilder();
+        if (accountId != null) {
+            where.append("account_id = ? AND ");
+            args.add(accountId);
+        } else if (categoryId != null) {
+            where.append("category_id = ? AND ");
+            args.add(categoryId);
+        } else {
+            where.append("user_id = ? AND ");
+            args.add(userId);
+        }
+        where.append("expense_date BETWEEN ? AND ?");
+        args.add(Date.valueOf(from != null ? from : MIN_DATE));
+        args.add(Date.valueOf(to != null ? to : MAX_DATE));
+        if (accountId != null || categoryId != null) {
+            where.append(" AND user_id = ?");
+            args.add(userId);
+        }
+        if (accountId != null && categoryId != null) {
+            where.append(" AND category_id = ?");
+            args.add(categoryId);
+        }
+        return where.toString();
     }
 
     public Optional<Expense> findById(Long id) {
-        List<Expense> list = jdbcTemplate.query(
+        return Optional.ofNullable(cache.expense(id, () -> jdbcTemplate.query(
                 "SELECT id, title, amount, category, category_id AS categoryId, user_id AS userId, account_id AS accountId, expense_date AS expenseDate, notes FROM expenses WHERE id = ?",
-                new BeanPropertyRowMapper<>(Expense.class),
+                RowMappers.EXPENSE,
+                id
+        ).stream().findFirst().orElse(null)));
+    }
+
+    // Row lock for the read-modify-write in update/delete, so concurrent writers cannot skew the rollups
+    private Optional<Expense> findByIdForUpdate(Long id) {
+        List<Expense> list = jdbcTemplate.query(
+                "SELECT id, title, amount, category, category_id AS categoryId, user_id AS userId, account_id AS accountId, expense_date AS expenseDate, notes FROM expenses WHERE id = ? FOR UPDATE",
+                RowMappers.EXPENSE,
                 id
         );
         return list.stream().findFirst();
     }
 
+    @Transactional
     public Long create(Expense e) {
-        // Ensure category exists in lookup (auto-creates AI-suggested categories)
-        jdbcTemplate.update(
-                "INSERT IGNORE INTO categories (name) VALUES (?)",
-                e.getCategory()
-        );
-        Long categoryId = null;
-        try {
-            categoryId = jdbcTemplate.queryForObject(
-                    "SELECT id FROM categories WHERE name = ?",
-                    Long.class,
-                    e.getCategory()
-            );
-        } catch (Exception ignore) {}
+        // Resolve (and auto-create) the category link; a cache hit costs no round-trip
+        Long categoryId = categoryCache.resolveId(e.getCategory());
 
         Long userId = (e.getUserId() != null ? e.getUserId() : 1L);
         Long accountId = (e.getAccountId() != null ? e.getAccountId() : 1L);
 
-        String sql = "INSERT INTO expenses (title, amount, category, category_id, expense_date, notes, user_id, account_id) VALUES (?,?,?,?,?,?,?,?)";
+        // Reflect the stored values (defaults and resolved category link) back on the saved expense
+        e.setUserId(userId);
+        e.setAccountId(accountId);
+        e.setCategoryId(categoryId);
+
         KeyHolder keyHolder = new GeneratedKeyHolder();
-        Long finalCategoryId = categoryId;
         jdbcTemplate.update(con -> {
-            PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            ps.setString(1, e.getTitle());
-            ps.setBigDecimal(2, e.getAmount());
-            ps.setString(3, e.getCategory());
-            ps.setObject(4, finalCategoryId, java.sql.Types.BIGINT);
-            ps.setDate(5, Date.valueOf(e.getExpenseDate()));
-            ps.setString(6, e.getNotes());
-            ps.setLong(7, userId);
-            ps.setLong(8, accountId);
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+            bindInsert(ps, e);
             return ps;
         }, keyHolder);
-        return keyHolder.getKey().longValue();
+        e.setId(keyHolder.getKey().longValue());
+        rollups.add(e);
+        events.publishEvent(ExpensesChangedEvent.created(List.of(e)));
+        return e.getId();
+    }
+
+    /**
+     * Inserts a batch of expenses in one transaction: categories are resolved
+     * in bulk, rows go out as one JDBC batch (rewritten into multi-row INSERTs
+     * when rewriteBatchedStatements=true) and rollups are applied per bucket.
+     * Generated ids are set on the passed expenses.
+     */
+    @Transactional
+    public int createBatch(List<Expense> batch) {
+        if (batch.isEmpty()) return 0;
+        Set<String> names = new LinkedHashSet<>();
+        for (Expense e : batch) names.add(e.getCategory());
+        Map<String, Long> categoryIds = categoryCache.resolveIds(names);
+        for (Expense e : batch) {
+            e.setCategoryId(categoryIds.get(e.getCategory()));
+            if (e.getUserId() == null) e.setUserId(1L);
+            if (e.getAccountId() == null) e.setAccountId(1L);
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bindInsert(ps, batch.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < keys.size() && i < batch.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            batch.get(i).setId(((Number) key).longValue());
+        }
+        rollups.addAll(batch);
+        events.publishEvent(ExpensesChangedEvent.created(List.copyOf(batch)));
+        return batch.size();
+    }
+
+    private static void bindInsert(PreparedStatement ps, Expense e) throws SQLException {
+        ps.setString(1, e.getTitle());
+        ps.setBigDecimal(2, e.getAmount());
+        ps.setString(3, e.getCategory());
+        ps.setObject(4, e.getCategoryId(), java.sql.Types.BIGINT);
+        ps.setDate(5, Date.valueOf(e.getExpenseDate()));
+        ps.setString(6, e.getNotes());
+        ps.setLong(7, e.getUserId());
+        ps.setLong(8, e.getAccountId());
     }
 
+    @Transactional
     public int update(Long id, Expense e) {
+        Optional<Expense> before = findByIdForUpdate(id);
+        if (before.isEmpty()) {
+            return 0;
+        }
+
         // Ensure category exists and resolve id
-        jdbcTemplate.update(
-                "INSERT IGNORE INTO categories (name) VALUES (?)",
-                e.getCategory()
-        );
-        Long categoryId = null;
-        try {
-            categoryId = jdbcTemplate.queryForObject(
-                    "SELECT id FROM categories WHERE name = ?",
-                    Long.class,
-                    e.getCategory()
-            );
-        } catch (Exception ignore) {}
+        Long categoryId = categoryCache.resolveId(e.getCategory());
 
         Long userId = e.getUserId();
         Long accountId = e.getAccountId();
 
-        return jdbcTemplate.update(
-                "UPDATE expenses SET title=?, amount=?, category=?, category_id=?, expense_date=?, notes=?, user_id=COALESCE(?, user_id), account_id=COALESCE(?, account_id) WHERE id=?",
-                e.getTitle(), e.getAmount(), e.getCategory(), categoryId, Date.valueOf(e.getExpenseDate()), e.getNotes(), userId, accountId, id
+        // The stored date narrows the lookup to one partition when expenses is partitioned by date
+        int updated = jdbcTemplate.update(
+                "UPDATE expenses SET title=?, amount=?, category=?, category_id=?, expense_date=?, notes=?, user_id=COALESCE(?, user_id), account_id=COALESCE(?, account_id) WHERE id=? AND expense_date=?",
+                e.getTitle(), e.getAmount(), e.getCategory(), categoryId, Date.valueOf(e.getExpenseDate()), e.getNotes(), userId, accountId, id,
+                Date.valueOf(before.get().getExpenseDate())
         );
+        if (updated > 0) {
+            Expense after = new Expense();
+            after.setId(id);
+            after.setTitle(e.getTitle());
+            after.setAmount(e.getAmount());
+            after.setCategory(e.getCategory());
+            after.setCategoryId(categoryId);
+            after.setExpenseDate(e.getExpenseDate());
+            after.setNotes(e.getNotes());
+            after.setUserId(userId != null ? userId : before.get().getUserId());
+            after.setAccountId(accountId != null ? accountId : before.get().getAccountId());
+            rollups.move(before.get(), after);
+            events.publishEvent(ExpensesChangedEvent.updated(before.get(), after));
+        }
+        return updated;
     }
 
+    @Transactional
     public int delete(Long id) {
-        return jdbcTemplate.update("DELETE FROM expenses WHERE id=?", id);
+        Optional<Expense> before = findByIdForUpdate(id);
+        if (before.isEmpty()) {
+            return 0;
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM expenses WHERE id=? AND expense_date=?",
+                id, Date.valueOf(before.get().getExpenseDate()));
+        if (deleted > 0) {
+            rollups.remove(before.get());
+            events.publishEvent(ExpensesChangedEvent.deleted(before.get()));
+        }
+        return deleted;
     }
 }
 
@@ -0,0 +1,281 @@
+package com.example.expenses.repository;
+
+import com.example.expenses.event.ExpensesChangedEvent;
+import com.example.expenses.model.Expense;
+import com.example.expenses.model.SummaryBucket;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Materialized monthly totals in expense_rollups, keyed by
+ * (user_id, period, category_id, account_id). ExpenseRepository applies a
+ * delta here inside the same transaction as each expense write, so summary
+ * reads touch one row per bucket instead of every expense.
+ */
+@Repository
+public class ExpenseRollupRepository {
+    private static final DateTimeFormatter PERIOD = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private static final String REBUILD_SELECT =
+            "SELECT COALESCE(user_id, 0), DATE_FORMAT(expense_date, '%Y-%m'), COALESCE(category_id, 0), COALESCE(account_id, 0), SUM(amount), COUNT(*) FROM expenses";
+    private static final String REBUILD_GROUP =
+            " GROUP BY COALESCE(user_id, 0), DATE_FORMAT(expense_date, '%Y-%m'), COALESCE(category_id, 0), COALESCE(account_id, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher events;
+
+    public ExpenseRollupRepository(JdbcTemplate jdbcTemplate, ApplicationEventPublisher events) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.events = events;
+    }
+
+    public static String period(LocalDate date) {
+        return date.format(PERIOD);
+    }
+
+    public void add(Expense e) {
+        apply(e, e.getAmount(), 1);
+    }
+
+    public void remove(Expense e) {
+        apply(e, e.getAmount().negate(), -1);
+    }
+
+    /**
+     * Moves an expense between buckets after an update. When the bucket is
+     * unchanged only the amount difference is applied (or nothing at all).
+     */
+    public void move(Expense before, Expense after) {
+        if (sameBucket(before, after)) {
+            BigDecimal delta = after.getAmount().subtract(before.getAmount());
+            if (delta.signum() != 0) {
+                apply(after, delta, 0);
+            }
+            return;
+        }
+        remove(before);
+        add(after);
+    }
+
+    /**
+     * Batch variant used by imports: deltas are summed per bucket in memory
+     * and written with one batched upsert.
+     */
+    public void addAll(List<Expense> expenses) {
+        Map<String, Object[]> buckets = new LinkedHashMap<>();
+        for (Expense e : expenses) {
+            String key = bucketKey(orZero(e.getUserId()), period(e.getExpenseDate()), orZero(e.getCategoryId()), orZero(e.getAccountId()));
+            Object[] row = buckets.computeIfAbsent(key, k -> new Object[]{
+                    orZero(e.getUserId()), period(e.getExpenseDate()), orZero(e.getCategoryId()), orZero(e.getAccountId()), BigDecimal.ZERO, 0L});
+            row[4] = ((BigDecimal) row[4]).add(e.getAmount());
+            row[5] = (Long) row[5] + 1;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO expense_rollups (user_id, period, category_id, account_id, total, cnt) VALUES (?,?,?,?,?,?) " +
+                        "ON DUPLICATE KEY UPDATE total = total + VALUES(total), cnt = cnt + VALUES(cnt)",
+                new ArrayList<>(buckets.values()));
+    }
+
+    private void apply(Expense e, BigDecimal amount, int count) {
+        jdbcTemplate.update(
+                "INSERT INTO expense_rollups (user_id, period, category_id, account_id, total, cnt) VALUES (?,?,?,?,?,?) " +
+                        "ON DUPLICATE KEY UPDATE total = total + VALUES(total), cnt = cnt + VALUES(cnt)",
+                orZero(e.getUserId()), period(e.getExpenseDate()), orZero(e.getCategoryId()), orZero(e.getAccountId()), amount, count
+        );
+    }
+
+    private static boolean sameBucket(Expense a, Expense b) {
+        return orZero(a.getUserId()) == orZero(b.getUserId())
+                && orZero(a.getCategoryId()) == orZero(b.getCategoryId())
+                && orZero(a.getAccountId()) == orZero(b.getAccountId())
+                && Objects.equals(period(a.getExpenseDate()), period(b.getExpenseDate()));
+    }
+
+    private static long orZero(Long v) {
+        return v == null ? 0L : v;
+    }
+
+    // --- reads (month granularity; callers only use these for month-aligned ranges) ---
+
+    public SummaryBucket summarizeTotal(Long userId, LocalDate from, LocalDate to, Long accountId, Long categoryId) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT COALESCE(SUM(total), 0), COALESCE(SUM(cnt), 0) FROM expense_rollups WHERE "
+                + scope(userId, from, to, accountId, categoryId, args);
+        return jdbcTemplate.queryForObject(sql,
+                (rs, i) -> new SummaryBucket("total", "total", rs.getBigDecimal(1), rs.getLong(2)),
+                args.toArray());
+    }
+
+    public List<SummaryBucket> summarizeByMonth(Long userId, LocalDate from, LocalDate to, Long accountId, Long categoryId) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT period, SUM(total), SUM(cnt) FROM expense_rollups WHERE "
+                + scope(userId, from, to, accountId, categoryId, args)
+                + " GROUP BY period HAVING SUM(cnt) > 0 ORDER BY period";
+        return jdbcTemplate.query(sql,
+                (rs, i) -> new SummaryBucket(rs.getString(1), rs.getString(1), rs.getBigDecimal(2), rs.getLong(3)),
+                args.toArray());
+    }
+
+    public List<SummaryBucket> summarizeByCategory(Long userId, LocalDate from, LocalDate to, Long accountId, Long categoryId) {
+        List<Object> args = new ArrayList<>();
+        // Like the live path, buckets without a category row (legacy rows, deleted categories) are labelled with
+        // the rows' free-text name; COALESCE only runs the lookup for those buckets
+        StringBuilder legacyName = new StringBuilder(
+                "SELECT MIN(e.category) FROM expenses e WHERE e.user_id = ? AND e.expense_date BETWEEN ? AND ?"
+                        + " AND COALESCE(e.category_id, 0) = s.category_id");
+        args.add(userId);
+        args.add(from != null ? from : ExpenseRepository.MIN_DATE);
+        args.add(to != null ? to : ExpenseRepository.MAX_DATE);
+        if (accountId != null) {
+            legacyName.append(" AND e.account_id = ?");
+            args.add(accountId);
+        }
+        String sql = "SELECT NULLIF(s.category_id, 0), COALESCE(c.name, (" + legacyName + ")), s.total, s.cnt FROM ("
+                + "SELECT category_id, SUM(total) AS total, SUM(cnt) AS cnt FROM expense_rollups WHERE "
+                + scope(userId, from, to, accountId, categoryId, args)
+                + " GROUP BY category_id HAVING SUM(cnt) > 0) s LEFT JOIN categories c ON c.id = s.category_id ORDER BY s.total DESC";
+        return jdbcTemplate.query(sql,
+                (rs, i) -> new SummaryBucket(rs.getString(1), rs.getString(2), rs.getBigDecimal(3), rs.getLong(4)),
+                args.toArray());
+    }
+
+    public List<SummaryBucket> summarizeByAccount(Long userId, LocalDate from, LocalDate to, Long accountId, Long categoryId) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT NULLIF(s.account_id, 0), a.name, s.total, s.cnt FROM ("
+                + "SELECT account_id, SUM(total) AS total, SUM(cnt) AS cnt FROM expense_rollups WHERE "
+                + scope(userId, from, to, accountId, categoryId, args)
+                + " GROUP BY account_id HAVING SUM(cnt) > 0) s LEFT JOIN accounts a ON a.id = s.account_id ORDER BY s.total DESC";
+        return jdbcTemplate.query(sql,
+                (rs, i) -> new SummaryBucket(rs.getString(1), rs.getString(2), rs.getBigDecimal(3), rs.getLong(4)),
+                args.toArray());
+    }
+
+    // Primary key prefix (user_id, period) turns every read into a range scan over the user's months
+    private static String scope(Long userId, LocalDate from, LocalDate to, Long accountId, Long categoryId, List<Object> args) {
+        StringBuilder where = new StringBuilder("user_id = ? AND period BETWEEN ? AND ?");
+        args.add(userId);
+        args.add(period(from != null ? from : ExpenseRepository.MIN_DATE));
+        args.add(period(to != null ? to : ExpenseRepository.MAX_DATE));
+        if (accountId != null) {
+            where.append(" AND account_id = ?");
+            args.add(accountId);
+        }
+        if (categoryId != null) {
+            where.append(" AND category_id = ?");
+            args.add(categoryId);
+        }
+        return where.toString();
+    }
+
+    // --- maintenance ---
+
+    /**
+     * Recomputes the rollups from expenses for one user (or everyone when
+     * userId is null) and returns the number of buckets written. Rows written
+     * before category_id existed are linked by name first, as every save does,
+     * and published as updates so the expense cache, search index and spending
+     * tracker see the new links.
+     */
+    @Transactional
+    public int rebuild(Long userId) {
+        linkCategories(userId);
+        if (userId != null) {
+            jdbcTemplate.update("DELETE FROM expense_rollups WHERE user_id = ?", userId);
+            return jdbcTemplate.update(
+                    "INSERT INTO expense_rollups (user_id, period, category_id, account_id, total, cnt) "
+                            + REBUILD_SELECT + " WHERE user_id = ?" + REBUILD_GROUP,
+                    userId);
+        }
+        jdbcTemplate.update("DELETE FROM expense_rollups");
+        return jdbcTemplate.update(
+                "INSERT INTO expense_rollups (user_id, period, category_id, account_id, total, cnt) "
+                        + REBUILD_SELECT + REBUILD_GROUP);
+    }
+
+    private void linkCategories(Long userId) {
+        Object[] args = userId != null ? new Object[]{userId} : new Object[0];
+        String where = " WHERE e.category_id IS NULL" + (userId != null ? " AND e.user_id = ?" : "");
+        List<Expense> before = new ArrayList<>();
+        List<Expense> after = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT e.id, e.title, e.amount, e.category, e.category_id, e.user_id, e.account_id, e.expense_date, e.notes, c.id "
+                        + "FROM expenses e JOIN categories c ON c.name = e.category" + where + " FOR UPDATE",
+                rs -> {
+                    before.add(RowMappers.EXPENSE.mapRow(rs, rs.getRow()));
+                    Expense linked = RowMappers.EXPENSE.mapRow(rs, rs.getRow());
+                    linked.setCategoryId(rs.getLong(10));
+                    after.add(linked);
+                },
+                args);
+        if (before.isEmpty()) return;
+        // Exactly the locked rows; the date narrows each lookup to one partition
+        List<Object[]> links = new ArrayList<>();
+        for (Expense e : after) {
+            links.add(new Object[]{e.getCategoryId(), e.getId(), Date.valueOf(e.getExpenseDate())});
+        }
+        jdbcTemplate.batchUpdate("UPDATE expenses SET category_id = ? WHERE id = ? AND expense_date = ?", links);
+        events.publishEvent(new ExpensesChangedEvent(before, after));
+    }
+
+    /**
+     * Compares the stored rollups with a fresh aggregation over expenses and
+     * returns every bucket that differs (empty when the store is consistent).
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> verify(Long userId) {
+        Map<String, Object[]> expected = new HashMap<>();
+        Map<String, Object[]> actual = new HashMap<>();
+        jdbcTemplate.query(REBUILD_SELECT + (userId != null ? " WHERE user_id = ?" : "") + REBUILD_GROUP,
+                rs -> {
+                    expected.put(bucketKey(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4)),
+                            new Object[]{rs.getBigDecimal(5), rs.getLong(6)});
+                },
+                userId != null ? new Object[]{userId} : new Object[0]);
+        // Buckets emptied by deletes stay behind with cnt = 0; they are not mismatches
+        jdbcTemplate.query("SELECT user_id, period, category_id, account_id, total, cnt FROM expense_rollups"
+                        + (userId != null ? " WHERE user_id = ? AND cnt <> 0" : " WHERE cnt <> 0"),
+                rs -> {
+                    actual.put(bucketKey(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4)),
+                            new Object[]{rs.getBigDecimal(5), rs.getLong(6)});
+                },
+                userId != null ? new Object[]{userId} : new Object[0]);
+
+        List<Map<String, Object>> mismatches = new ArrayList<>();
+        Map<String, Object[]> all = new LinkedHashMap<>(expected);
+        actual.forEach(all::putIfAbsent);
+        for (String key : all.keySet()) {
+            Object[] want = expected.get(key);
+            Object[] got = actual.get(key);
+            boolean same = want != null && got != null
+                    && ((BigDecimal) want[0]).compareTo((BigDecimal) got[0]) == 0
+                    && want[1].equals(got[1]);
+            if (!same) {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("bucket", key);
+                m.put("expectedTotal", want != null ? want[0] : BigDecimal.ZERO);
+                m.put("expectedCount", want != null ? want[1] : 0L);
+                m.put("actualTotal", got != null ? got[0] : BigDecimal.ZERO);
+                m.put("actualCount", got != null ? got[1] : 0L);
+                mismatches.add(m);
+            }
+        }
+        return mismatches;
+    }
+
+    private static String bucketKey(long userId, String period, long categoryId, long accountId) {
+        return userId + "/" + period + "/" + categoryId + "/" + accountId;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.expenses.repository;
+
+import com.example.expenses.model.Account;
+import com.example.expenses.model.Category;
+import com.example.expenses.model.Expense;
+import com.example.expenses.model.User;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Hand-written, stateless row mappers shared by the repositories. Columns are
+ * read by position, so each mapper documents the SELECT list it expects; no
+ * reflection or per-row property matching happens (unlike
+ * BeanPropertyRowMapper, which was also re-created on every call).
+ */
+public final class RowMappers {
+
+    // id, title, amount, category, category_id, user_id, account_id, expense_date, notes
+    public static final RowMapper<Expense> EXPENSE = (rs, rowNum) -> {
+        Expense e = new Expense();
+        e.setId(rs.getLong(1));
+        e.setTitle(rs.getString(2));
+        e.setAmount(rs.getBigDecimal(3));
+        e.setCategory(rs.getString(4));
+        e.setCategoryId(nullableLong(rs, 5));
+        e.setUserId(nullableLong(rs, 6));
+        e.setAccountId(nullableLong(rs, 7));
+        Date d = rs.getDate(8);
+        e.setExpenseDate(d != null ? d.toLocalDate() : null);
+        e.setNotes(rs.getString(9));
+        return e;
+    };
+
+    // id, user_id, name, type, currency_code
+    public static final RowMapper<Account> ACCOUNT = (rs, rowNum) -> {
+        Account a = new Account();
+        a.setId(rs.getLong(1));
+        a.setUserId(nullableLong(rs, 2));
+        a.setName(rs.getString(3));
+        a.setType(rs.getString(4));
+        a.setCurrencyCode(rs.getString(5));
+        return a;
+    };
+
+    // id, name, type, color
+    public static final RowMapper<Category> CATEGORY = (rs, rowNum) -> {
+        Category c = new Category();
+        c.setId(rs.getLong(1));
+        c.setName(rs.getString(2));
+        c.setType(rs.getString(3));
+        c.setColor(rs.getString(4));
+        return c;
+    };
+
+    // id, email, name, password_hash
+    public static final RowMapper<User> USER = (rs, rowNum) -> {
+        User u = new User();
+        u.setId(rs.getLong(1));
+        u.setEmail(rs.getString(2));
+        u.setName(rs.getString(3));
+        u.setPasswordHash(rs.getString(4));
+        return u;
+    };
+
+    private RowMappers() {
+    }
+
+    private static Long nullableLong(ResultSet rs, int index) throws SQLException {
+        long v = rs.getLong(index);
+        return rs.wasNull() ? null : v;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.expenses.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Persistence behind SpendingTracker: the spending_stats snapshot and the
+ * aggregations it is seeded from. Methods are deliberately not named find*
+ * so they run on the primary; a snapshot must not be built from a lagging
+ * replica.
+ */
+@Repository
+public class SpendingStatsRepository {
+    private static final String UPSERT =
+            "INSERT INTO spending_stats (user_id, category_id, cnt, mean, m2) VALUES (?,?,?,?,?) "
+                    + "ON DUPLICATE KEY UPDATE cnt = VALUES(cnt), mean = VALUES(mean), m2 = VALUES(m2)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SpendingStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Streams the snapshot: user_id, category_id, cnt, mean, m2. */
+    public void loadSnapshot(RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT user_id, category_id, cnt, mean, m2 FROM spending_stats", handler);
+    }
+
+    /**
+     * Computes the same statistics from the expenses table (one full scan):
+     * user_id, category_id, cnt, mean, m2. Used when there is no snapshot yet
+     * and by rebuilds.
+     */
+    public void aggregateExpenses(RowCallbackHandler handler) {
+        jdbcTemplate.query(
+                "SELECT COALESCE(user_id, 0), COALESCE(category_id, 0), COUNT(*), AVG(amount), VAR_POP(amount) * COUNT(*) "
+                        + "FROM expenses GROUP BY COALESCE(user_id, 0), COALESCE(category_id, 0)",
+                handler);
+    }
+
+    /** Streams month totals from the rollups for every period from the given one on: user_id, category_id, period, total. */
+    public void loadMonthTotals(String fromPeriod, RowCallbackHandler handler) {
+        jdbcTemplate.query(
+                "SELECT user_id, category_id, period, SUM(total) FROM expense_rollups WHERE period >= ? "
+                        + "GROUP BY user_id, category_id, period",
+                handler,
+                fromPeriod);
+    }
+
+    /** Upserts snapshot rows of {user_id, category_id, cnt, mean, m2}. */
+    public void saveAll(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+    }
+
+    /** Replaces the whole snapshot (after a rebuild). */
+    @Transactional
+    public void replaceAll(List<Object[]> rows) {
+        jdbcTemplate.update("DELETE FROM spending_stats");
+        saveAll(rows);
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.expenses.repository;
 
 import com.example.expenses.model.User;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -23,14 +22,14 @@ public class UserRepository {
     public List<User> findAll() {
         return jdbcTemplate.query(
                 "SELECT id, email, name, password_hash AS passwordHash FROM users ORDER BY id",
-                new BeanPropertyRowMapper<>(User.class)
+                RowMappers.USER
         );
     }
 
     public Optional<User> findById(Long id) {
         List<User> list = jdbcTemplate.query(
                 "SELECT id, email, name, password_hash AS passwordHash FROM users WHERE id = ?",
-                new BeanPropertyRowMapper<>(User.class),
+                RowMappers.USER,
                 id
         );
         return list.stream().findFirst();
@@ -39,7 +38,7 @@ public class UserRepository {
     public Optional<User> findByEmail(String email) {
         List<User> list = jdbcTemplate.query(
                 "SELECT id, email, name, password_hash AS passwordHash FROM users WHERE email = ?",
-                new BeanPropertyRowMapper<>(User.class),
+                RowMappers.USER,
                 email
         );
         return list.stream().findFirst();
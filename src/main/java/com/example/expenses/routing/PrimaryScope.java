@@ -0,0 +1,25 @@
+package com.example.expenses.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs a block with every connection it opens routed to the primary, for
+ * reads whose result outlives the request (cache loads): a lagging replica
+ * must not hand them an old row. Does nothing when replicas are off.
+ */
+public final class PrimaryScope {
+
+    private PrimaryScope() {
+    }
+
+    public static <T> T call(Supplier<T> body) {
+        RoutingContext ctx = RoutingContext.current();
+        boolean previous = ctx.forcePrimary;
+        ctx.forcePrimary = true;
+        try {
+            return body.get();
+        } finally {
+            ctx.forcePrimary = previous;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.expenses.routing;
+
+import com.example.expenses.repository.AccountRepository;
+import com.example.expenses.repository.UserRepository;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Marks the read-only repository methods (find*, summarize*, stream*) so
+ * their connections may come from a replica, and records every other
+ * repository call as a write of the current request. Runs outside the
+ * transaction interceptor.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadRoutingAspect {
+
+    private final RecentWrites recentWrites;
+
+    public ReadRoutingAspect(RecentWrites recentWrites) {
+        this.recentWrites = recentWrites;
+    }
+
+    @Around("within(@org.springframework.stereotype.Repository *) && "
+            + "(execution(public * find*(..)) || execution(public * summarize*(..)) || execution(public * stream*(..)))")
+    public Object read(ProceedingJoinPoint pjp) throws Throwable {
+        RoutingContext ctx = RoutingContext.current();
+        ctx.readDepth++;
+        try {
+            return pjp.proceed();
+        } finally {
+            ctx.readDepth--;
+        }
+    }
+
+    @Around("within(@org.springframework.stereotype.Repository *) && execution(public * *(..)) && "
+            + "!execution(public * find*(..)) && !execution(public * summarize*(..)) && !execution(public * stream*(..))")
+    public Object write(ProceedingJoinPoint pjp) throws Throwable {
+        Object result = pjp.proceed();
+        RoutingContext.current().wrote = true;
+        // Expense and category writes reach RecentWrites through their change events
+        Object target = pjp.getTarget();
+        if (target instanceof AccountRepository || target instanceof UserRepository) {
+            recentWrites.sharedWrite();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.expenses.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends a connection request to a replica when it is made for a read-only
+ * repository call (or a read-only transaction), the request has not written
+ * and does not ask to read its own writes, and the staleness policy allows
+ * it. Everything else goes to the primary. Replicas are used round robin.
+ * Wrapped in a LazyConnectionDataSourceProxy, so transactions pick their
+ * target at the first statement, once the read-only flag is known.
+ */
+class ReadRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final String[] replicas;
+    private final RecentWrites recentWrites;
+    private final AtomicInteger next = new AtomicInteger();
+
+    ReadRoutingDataSource(String[] replicas, RecentWrites recentWrites) {
+        this.replicas = replicas;
+        this.recentWrites = recentWrites;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        RoutingContext ctx = RoutingContext.current();
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                ? TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                : ctx.readDepth > 0;
+        if (!readOnly || ctx.forcePrimary || ctx.wrote || replicas.length == 0
+                || !recentWrites.replicaAllowed(ctx.userId)) {
+            return PRIMARY;
+        }
+        return replicas[Math.floorMod(next.getAndIncrement(), replicas.length)];
+    }
+}
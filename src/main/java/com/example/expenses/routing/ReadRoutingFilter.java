@@ -0,0 +1,46 @@
+package com.example.expenses.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Fills the RoutingContext for a request: the userId parameter (for the
+ * per-user staleness window) and the read-your-writes header, which pins
+ * every read of the request to the primary.
+ */
+public class ReadRoutingFilter extends OncePerRequestFilter {
+
+    private final String readYourWritesHeader;
+
+    public ReadRoutingFilter(String readYourWritesHeader) {
+        this.readYourWritesHeader = readYourWritesHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RoutingContext ctx = RoutingContext.current();
+        ctx.userId = parseUserId(request.getParameter("userId"));
+        String header = request.getHeader(readYourWritesHeader);
+        ctx.forcePrimary = header != null && !header.isBlank() && !"false".equalsIgnoreCase(header.trim());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RoutingContext.clear();
+        }
+    }
+
+    private static Long parseUserId(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
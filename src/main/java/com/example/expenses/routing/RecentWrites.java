@@ -0,0 +1,78 @@
+package com.example.expenses.routing;
+
+import com.example.expenses.event.CategoriesChangedEvent;
+import com.example.expenses.event.ExpensesChangedEvent;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Staleness policy for replica reads. Remembers when each user last wrote
+ * expenses (after commit) and when anything else was last written, and
+ * decides whether a read may go to a replica:
+ * <ul>
+ *   <li>{@code user-window}: reads for a user go to the primary for the window after that user's last write;
+ *       reads not tied to a user (e.g. GET /api/expenses/{id}) wait out the window after the last write of any kind</li>
+ *   <li>{@code global-window}: any write sends every read to the primary for the window</li>
+ *   <li>{@code none}: reads always use replicas (only in-request writes and the read-your-writes header pin the primary)</li>
+ * </ul>
+ * The window should exceed the replicas' usual lag.
+ */
+public class RecentWrites {
+
+    public enum Policy { USER_WINDOW, GLOBAL_WINDOW, NONE }
+
+    private static final int MAX_TRACKED_USERS = 100_000;
+
+    private final Policy policy;
+    private final long windowNanos;
+    private final Map<Long, Long> userWrites = new ConcurrentHashMap<>();
+    private volatile long anyWrite;
+
+    public RecentWrites(Policy policy, Duration window) {
+        this.policy = policy;
+        this.windowNanos = window.toNanos();
+        this.anyWrite = System.nanoTime() - windowNanos - 1;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        long now = System.nanoTime();
+        if (userWrites.size() > MAX_TRACKED_USERS) {
+            userWrites.values().removeIf(t -> now - t > windowNanos);
+        }
+        for (Long userId : event.userIds()) {
+            userWrites.put(userId, now);
+        }
+        anyWrite = now;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoriesChanged(CategoriesChangedEvent event) {
+        sharedWrite();
+    }
+
+    /** A committed write outside the expenses table (categories, accounts, users). */
+    void sharedWrite() {
+        anyWrite = System.nanoTime();
+    }
+
+    boolean replicaAllowed(Long userId) {
+        long now = System.nanoTime();
+        switch (policy) {
+            case NONE:
+                return true;
+            case GLOBAL_WINDOW:
+                return now - anyWrite > windowNanos;
+            default:
+                if (userId == null) {
+                    // Could be reading any user's rows, including one just written
+                    return now - anyWrite > windowNanos;
+                }
+                Long last = userWrites.get(userId);
+                return last == null || now - last > windowNanos;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.expenses.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The primary pool plus one read-only pool per replica URL. Replica pools
+ * copy the primary's Hikari settings; credentials and pool size may be
+ * overridden. Kept out of the context as DataSource beans so only the
+ * routing DataSource is wrapped and exposed.
+ */
+public class ReplicaPools implements DisposableBean {
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+
+    public ReplicaPools(HikariDataSource primary, List<String> urls, String username, String password, Integer maxPoolSize) {
+        this.primary = primary;
+        String base = primary.getPoolName() != null ? primary.getPoolName() : "expenses";
+        for (int i = 0; i < urls.size(); i++) {
+            // No-arg constructor: the pool starts on first use, like the primary
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setJdbcUrl(urls.get(i).trim());
+            if (username != null && !username.isBlank()) replica.setUsername(username);
+            if (password != null && !password.isBlank()) replica.setPassword(password);
+            if (maxPoolSize != null) replica.setMaximumPoolSize(maxPoolSize);
+            replica.setReadOnly(true);
+            replica.setPoolName(base + "-replica-" + (i + 1));
+            replicas.add(replica);
+        }
+    }
+
+    public HikariDataSource primary() {
+        return primary;
+    }
+
+    public List<? extends DataSource> replicas() {
+        return Collections.unmodifiableList(replicas);
+    }
+
+    @Override
+    public void destroy() {
+        for (HikariDataSource replica : replicas) {
+            replica.close();
+        }
+        primary.close();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.expenses.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read/write splitting, on when replicas.enabled=true: repository reads go
+ * to the replica pools and everything else to the primary (see
+ * ReadRoutingDataSource). Replaces Boot's single pool; spring.datasource.*
+ * still configures the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public RecentWrites recentWrites(@Value("${replicas.staleness-policy:user-window}") String policy,
+                                     @Value("${replicas.read-after-write-window:5s}") Duration window) {
+        return new RecentWrites(RecentWrites.Policy.valueOf(policy.trim().toUpperCase(Locale.ROOT).replace('-', '_')), window);
+    }
+
+    @Bean
+    public ReplicaPools replicaPools(DataSourceProperties properties, Environment env, MeterRegistry registry,
+                                     @Value("${replicas.urls}") String urls,
+                                     @Value("${replicas.username:}") String username,
+                                     @Value("${replicas.password:}") String password,
+                                     @Value("${replicas.max-pool-size:#{null}}") Integer maxPoolSize) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        List<String> replicaUrls = Arrays.stream(urls.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        ReplicaPools pools = new ReplicaPools(primary, replicaUrls, username, password, maxPoolSize);
+        // Not DataSource beans, so Boot does not bind their hikaricp.* metrics
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(registry);
+        pools.primary().setMetricsTrackerFactory(metrics);
+        for (DataSource replica : pools.replicas()) {
+            ((HikariDataSource) replica).setMetricsTrackerFactory(metrics);
+        }
+        return pools;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaPools pools, RecentWrites recentWrites) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadRoutingDataSource.PRIMARY, pools.primary());
+        String[] replicaKeys = new String[pools.replicas().size()];
+        for (int i = 0; i < replicaKeys.length; i++) {
+            replicaKeys[i] = "replica-" + (i + 1);
+            targets.put(replicaKeys[i], pools.replicas().get(i));
+        }
+        ReadRoutingDataSource routing = new ReadRoutingDataSource(replicaKeys, recentWrites);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(pools.primary());
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        // Defers the choice of pool to the first statement, after the transaction's read-only flag is set
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(routing);
+        lazy.setDefaultAutoCommit(pools.primary().isAutoCommit());
+        return lazy;
+    }
+
+    @Bean
+    public ReadRoutingAspect readRoutingAspect(RecentWrites recentWrites) {
+        return new ReadRoutingAspect(recentWrites);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadRoutingFilter> readRoutingFilter(
+            @Value("${replicas.read-your-writes-header:X-Read-Your-Writes}") String header) {
+        FilterRegistrationBean<ReadRoutingFilter> registration = new FilterRegistrationBean<>(new ReadRoutingFilter(header));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.expenses.routing;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * A StreamingResponseBody is written on an async worker thread after the
+ * request thread (and ReadRoutingFilter) has returned, so it would route with
+ * an empty RoutingContext: no userId for the staleness window and no
+ * read-your-writes header. Wrapping the body at request time carries the
+ * request's routing state over to the thread that writes it.
+ */
+public final class RoutedStreamingBody {
+
+    private RoutedStreamingBody() {
+    }
+
+    public static StreamingResponseBody of(StreamingResponseBody body) {
+        RoutingContext request = RoutingContext.current();
+        Long userId = request.userId;
+        boolean forcePrimary = request.forcePrimary;
+        boolean wrote = request.wrote;
+        return out -> {
+            RoutingContext ctx = RoutingContext.current();
+            ctx.userId = userId;
+            ctx.forcePrimary = forcePrimary;
+            ctx.wrote = wrote;
+            try {
+                body.writeTo(out);
+            } finally {
+                RoutingContext.clear();
+            }
+        };
+    }
+}
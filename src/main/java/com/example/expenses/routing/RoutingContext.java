@@ -0,0 +1,27 @@
+package com.example.expenses.routing;
+
+/**
+ * Per-thread routing hints: whether the current repository call only reads,
+ * who the request is for, and whether it must see its own writes. Set by
+ * ReadRoutingFilter (per request) and ReadRoutingAspect (per call).
+ */
+final class RoutingContext {
+
+    private static final ThreadLocal<RoutingContext> CURRENT = ThreadLocal.withInitial(RoutingContext::new);
+
+    int readDepth;
+    boolean forcePrimary;
+    boolean wrote;
+    Long userId;
+
+    private RoutingContext() {
+    }
+
+    static RoutingContext current() {
+        return CURRENT.get();
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.expenses.search;
+
+import com.example.expenses.event.ExpensesChangedEvent;
+import com.example.expenses.event.ExpensesPurgedEvent;
+import com.example.expenses.model.Expense;
+import com.example.expenses.model.ExpenseSearchPage;
+import com.example.expenses.repository.ExpenseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Full-text search over expense titles and notes, one in-memory inverted
+ * index per user. A user's index is built from the database on their first
+ * search and then kept current from ExpensesChangedEvent after every commit;
+ * the least recently searched users are dropped beyond search.index.max-users.
+ */
+@Component
+public class ExpenseSearchIndex {
+
+    private static final Comparator<UserIndex.Hit> RANKING = Comparator
+            .comparingDouble((UserIndex.Hit h) -> h.score).reversed()
+            .thenComparing(h -> h.expense.getExpenseDate(), Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(h -> h.expense.getId(), Comparator.reverseOrder());
+
+    private final ExpenseRepository repository;
+    private final int maxUsers;
+    private final LinkedHashMap<Long, UserIndex> users;
+    // Per-user change counter; also the lock that keeps concurrent first searches to one build
+    private final Map<Long, AtomicLong> changes = new ConcurrentHashMap<>();
+
+    public ExpenseSearchIndex(ExpenseRepository repository,
+                              @Value("${search.index.max-users:1000}") int maxUsers) {
+        this.repository = repository;
+        this.maxUsers = maxUsers;
+        this.users = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserIndex> eldest) {
+                return size() > ExpenseSearchIndex.this.maxUsers;
+            }
+        };
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        synchronized (users) {
+            for (Long userId : event.userIds()) {
+                changes.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+            }
+            for (Expense e : event.getBefore()) {
+                UserIndex index = users.get(e.getUserId());
+                if (index != null) index.remove(e.getId());
+            }
+            for (Expense e : event.getAfter()) {
+                UserIndex index = users.get(e.getUserId());
+                if (index != null && e.getId() != null) index.add(e);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesPurged(ExpensesPurgedEvent event) {
+        synchronized (users) {
+            changes.values().forEach(AtomicLong::incrementAndGet);
+            users.clear();
+        }
+    }
+
+    /**
+     * Ranked matches for the user: every term must match a word (or the start
+     * of one) in the title or notes. Ties, and searches with filters only, are
+     * ordered newest first.
+     */
+    public ExpenseSearchPage search(Long userId, ExpenseSearchQuery query, int offset, int limit) {
+        List<UserIndex.Hit> hits = index(userId).search(Tokenizer.tokens(query.getText()), filter(query));
+        hits.sort(RANKING);
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        List<Expense> items = new ArrayList<>(to - from);
+        for (UserIndex.Hit hit : hits.subList(from, to)) {
+            items.add(hit.expense);
+        }
+        return new ExpenseSearchPage(items, hits.size(), to < hits.size() ? to : null);
+    }
+
+    private UserIndex index(Long userId) {
+        synchronized (users) {
+            UserIndex index = users.get(userId);
+            if (index != null) return index;
+        }
+        AtomicLong changeCount = changes.computeIfAbsent(userId, k -> new AtomicLong());
+        synchronized (changeCount) {
+            synchronized (users) {
+                UserIndex index = users.get(userId);
+                if (index != null) return index;
+            }
+            long seen = changeCount.get();
+            UserIndex index = new UserIndex();
+            repository.streamAll(userId, index::add);
+            synchronized (users) {
+                // A write committed during the load may be missing from it: serve this result, build again next time
+                if (changeCount.get() == seen) {
+                    users.put(userId, index);
+                }
+            }
+            return index;
+        }
+    }
+
+    private static Predicate<Expense> filter(ExpenseSearchQuery q) {
+        String category = q.getCategory() != null && !q.getCategory().isBlank() ? q.getCategory().trim() : null;
+        return e -> (q.getFrom() == null || (e.getExpenseDate() != null && !e.getExpenseDate().isBefore(q.getFrom())))
+                && (q.getTo() == null || (e.getExpenseDate() != null && !e.getExpenseDate().isAfter(q.getTo())))
+                && (q.getMinAmount() == null || (e.getAmount() != null && e.getAmount().compareTo(q.getMinAmount()) >= 0))
+                && (q.getMaxAmount() == null || (e.getAmount() != null && e.getAmount().compareTo(q.getMaxAmount()) <= 0))
+                && (q.getCategoryId() == null || q.getCategoryId().equals(e.getCategoryId()))
+                && (category == null || category.equalsIgnoreCase(e.getCategory()));
+    }
+
+    /** Users currently indexed and the expenses held for them. */
+    public Map<String, Object> stats() {
+        int indexed = 0;
+        long docs = 0;
+        synchronized (users) {
+            for (UserIndex index : users.values()) {
+                indexed++;
+                docs += index.size();
+            }
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("users", indexed);
+        m.put("expenses", docs);
+        m.put("maxUsers", maxUsers);
+        return m;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.expenses.search;
+
+import com.example.expenses.model.Expense;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index over one user's expenses: term -> expense ids, kept sorted
+ * so a prefix is a sub-map scan. Scoring is BM25 over title (counted twice)
+ * plus notes; a term that only matches as a prefix of a longer token scores
+ * less, in proportion to how much of the token it covers.
+ */
+final class UserIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2;
+    private static final double PREFIX_WEIGHT = 0.6;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private final TreeMap<String, Set<Long>> postings = new TreeMap<>();
+    private long totalLength;
+
+    static final class Doc {
+        final Expense expense;
+        final Map<String, Integer> tf;
+        final int length;
+
+        Doc(Expense expense, Map<String, Integer> tf, int length) {
+            this.expense = expense;
+            this.tf = tf;
+            this.length = length;
+        }
+    }
+
+    static final class Hit {
+        final Expense expense;
+        final double score;
+
+        Hit(Expense expense, double score) {
+            this.expense = expense;
+            this.score = score;
+        }
+    }
+
+    void add(Expense e) {
+        Map<String, Integer> tf = new HashMap<>();
+        int length = 0;
+        for (String t : Tokenizer.tokens(e.getTitle())) {
+            tf.merge(t, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String t : Tokenizer.tokens(e.getNotes())) {
+            tf.merge(t, 1, Integer::sum);
+            length++;
+        }
+        Doc doc = new Doc(copy(e), tf, length);
+        lock.writeLock().lock();
+        try {
+            removeLocked(e.getId());
+            docs.put(e.getId(), doc);
+            for (String term : tf.keySet()) {
+                postings.computeIfAbsent(term, k -> new HashSet<>()).add(e.getId());
+            }
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long id) {
+        Doc doc = docs.remove(id);
+        if (doc == null) return;
+        for (String term : doc.tf.keySet()) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= doc.length;
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Expenses containing every term (as a word or word prefix) that pass the
+     * filter, unsorted. With no terms every expense passing the filter is a
+     * hit with score 0.
+     */
+    List<Hit> search(List<String> terms, Predicate<Expense> filter) {
+        lock.readLock().lock();
+        try {
+            List<Hit> hits = new ArrayList<>();
+            if (terms.isEmpty()) {
+                for (Doc doc : docs.values()) {
+                    if (filter.test(doc.expense)) hits.add(new Hit(doc.expense, 0));
+                }
+                return hits;
+            }
+            Map<Long, Double> scores = null;
+            for (String q : new LinkedHashSet<>(terms)) {
+                Map<Long, Double> termScores = scoreTerm(q);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, s) -> s + termScores.get(id));
+                }
+                if (scores.isEmpty()) return hits;
+            }
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                Expense e = docs.get(entry.getKey()).expense;
+                if (filter.test(e)) hits.add(new Hit(e, entry.getValue()));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> scoreTerm(String q) {
+        Map<Long, Double> out = new HashMap<>();
+        int n = docs.size();
+        double avgLength = n == 0 ? 1 : Math.max(1.0, (double) totalLength / n);
+        for (Map.Entry<String, Set<Long>> entry : postings.subMap(q, true, q + Character.MAX_VALUE, true).entrySet()) {
+            String token = entry.getKey();
+            Set<Long> ids = entry.getValue();
+            double weight = token.equals(q) ? 1.0 : PREFIX_WEIGHT * q.length() / token.length();
+            double idf = Math.log(1 + (n - ids.size() + 0.5) / (ids.size() + 0.5));
+            for (Long id : ids) {
+                Doc doc = docs.get(id);
+                int tf = doc.tf.get(token);
+                double s = weight * idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * doc.length / avgLength));
+                out.merge(id, s, Math::max);
+            }
+        }
+        return out;
+    }
+
+    // Detached from the caller's instance, which may still be changed after the write
+    private static Expense copy(Expense e) {
+        Expense c = new Expense();
+        c.setId(e.getId());
+        c.setUserId(e.getUserId());
+        c.setAccountId(e.getAccountId());
+        c.setCategoryId(e.getCategoryId());
+        c.setTitle(e.getTitle());
+        c.setAmount(e.getAmount());
+        c.setCategory(e.getCategory());
+        c.setExpenseDate(e.getExpenseDate());
+        c.setNotes(e.getNotes());
+        return c;
+    }
+}
@@ -36,3 +36,11 @@ INSERT INTO expenses (title, amount, category, expense_date, notes, user_id, acc
 ('Internet', 799.00, 'utilities', '2025-01-05', 'Monthly plan', 2, 3),
 ('Pumpkin', 80.00, 'grocery', '2025-01-06', '1 kg', 2, 3),
 ('Movie night', 450.00, 'entertainment', '2025-01-12', 'Cinema', 2, 3);
+
+-- Seed rows bypass the repository, so link their categories and derive their rollups directly
+UPDATE expenses e JOIN categories c ON c.name = e.category SET e.category_id = c.id WHERE e.category_id IS NULL;
+
+INSERT INTO expense_rollups (user_id, period, category_id, account_id, total, cnt)
+SELECT COALESCE(user_id, 0), DATE_FORMAT(expense_date, '%Y-%m'), COALESCE(category_id, 0), COALESCE(account_id, 0), SUM(amount), COUNT(*)
+FROM expenses
+GROUP BY COALESCE(user_id, 0), DATE_FORMAT(expense_date, '%Y-%m'), COALESCE(category_id, 0), COALESCE(account_id, 0);
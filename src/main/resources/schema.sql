@@ -1,5 +1,8 @@
 -- Development reset (drops existing tables to avoid schema drift)
 SET FOREIGN_KEY_CHECKS=0;
+DROP TABLE IF EXISTS spending_stats;
+DROP TABLE IF EXISTS budgets;
+DROP TABLE IF EXISTS expense_rollups;
 DROP TABLE IF EXISTS expenses;
 DROP TABLE IF EXISTS accounts;
 DROP TABLE IF EXISTS users;
@@ -32,9 +35,12 @@ CREATE TABLE IF NOT EXISTS categories (
     color VARCHAR(20)
 );
 
--- Expenses table (with ownership and normalized link columns)
+-- Expenses table (with ownership and normalized link columns), range-partitioned by month on expense_date.
+-- The primary key includes expense_date because MySQL requires the partitioning column in every unique key.
+-- ExpensePartitionMaintenance splits monthly partitions off p_future ahead of time; existing unpartitioned
+-- tables can be converted online with db/partition-expenses.sh.
 CREATE TABLE IF NOT EXISTS expenses (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    id BIGINT NOT NULL AUTO_INCREMENT,
     title VARCHAR(255) NOT NULL,
     amount DECIMAL(12,2) NOT NULL,
     category VARCHAR(100) NOT NULL,
@@ -43,8 +49,43 @@ CREATE TABLE IF NOT EXISTS expenses (
     user_id BIGINT NULL DEFAULT 1,
     account_id BIGINT NULL DEFAULT 1,
     category_id BIGINT NULL,
+    PRIMARY KEY (id, expense_date),
     KEY ix_expenses_user_date (user_id, expense_date),
     KEY ix_expenses_account_date (account_id, expense_date),
     KEY ix_expenses_category_date (category_id, expense_date)
+)
+PARTITION BY RANGE COLUMNS (expense_date) (
+    PARTITION p_history VALUES LESS THAN ('2025-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
 );
 
+-- Monthly rollups (sum/count per user, month, category, account), kept in step with
+-- every expense write; 0 stands in for a missing category/account/user link
+CREATE TABLE IF NOT EXISTS expense_rollups (
+    user_id BIGINT NOT NULL,
+    period CHAR(7) NOT NULL,
+    category_id BIGINT NOT NULL DEFAULT 0,
+    account_id BIGINT NOT NULL DEFAULT 0,
+    total DECIMAL(14,2) NOT NULL DEFAULT 0,
+    cnt BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, period, category_id, account_id)
+);
+
+-- Monthly spending limit per user and category (budget alerts, GET /api/budgets)
+CREATE TABLE IF NOT EXISTS budgets (
+    user_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    monthly_limit DECIMAL(12,2) NOT NULL,
+    PRIMARY KEY (user_id, category_id)
+);
+
+-- Snapshot of the running amount statistics (count, mean, sum of squared deviations) per user and
+-- category that anomaly alerts compare new expenses against; 0 stands in for a missing category link
+CREATE TABLE IF NOT EXISTS spending_stats (
+    user_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL DEFAULT 0,
+    cnt BIGINT NOT NULL,
+    mean DOUBLE NOT NULL,
+    m2 DOUBLE NOT NULL,
+    PRIMARY KEY (user_id, category_id)
+);
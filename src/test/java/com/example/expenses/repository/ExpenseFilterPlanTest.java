@@ -0,0 +1,118 @@
+package com.example.expenses.repository;
+
+import com.example.expenses.model.Expense;
+import com.example.expenses.model.ExpenseFilter;
+import com.example.expenses.model.ExpensePage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the plans of ExpenseRepository's filtered-list SQL on MySQL: every
+ * filter shape must range-scan one of the ix_expenses_*_date indexes, never
+ * scan the table or a whole index. Runs against schema.sql with enough rows
+ * (and fresh statistics) that the optimizer's choice is the production one.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ExpenseFilterPlanTest {
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private static ExpenseRepository repository;
+
+    @BeforeAll
+    static void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        // 100k rows: 100 users, 300 accounts, 11 categories over the last three years
+        jdbc.execute("INSERT INTO categories (name) VALUES ('grocery'),('electronics'),('utilities'),('treat'),('transit'),"
+                + "('health'),('entertainment'),('shopping'),('education'),('rent'),('travel')");
+        jdbc.execute("SET SESSION cte_max_recursion_depth = 100000");
+        jdbc.execute("INSERT INTO expenses (title, amount, category, category_id, expense_date, user_id, account_id) "
+                + "WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 100000) "
+                + "SELECT CONCAT('Expense ', n), 1 + (n * 37) % 50000 / 100, 'grocery', 1 + n % 11, "
+                + "DATE_SUB(CURDATE(), INTERVAL n % 1095 DAY), 1 + n % 100, 1 + n % 300 FROM seq");
+        jdbc.execute("ANALYZE TABLE expenses");
+
+        ApplicationEventPublisher events = event -> { };
+        CategoryCache categories = new CategoryCache(jdbc, new CategoryRepository(jdbc, events), events);
+        repository = new ExpenseRepository(jdbc, new ExpenseRollupRepository(jdbc, events), categories, events,
+                new ExpenseCache(DataSize.ofBytes(0), new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void everyFilterShapeUsesAnIndexRange() {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusMonths(3);
+        ExpensePage.Cursor dateCursor = new ExpensePage.Cursor(to.minusDays(10), Long.MAX_VALUE);
+        Expense last = new Expense();
+        last.setAmount(BigDecimal.valueOf(250));
+        last.setId(Long.MAX_VALUE);
+        ExpensePage.Cursor amountCursor = ExpensePage.Cursor.ofAmount(last);
+
+        List<String> failures = new ArrayList<>();
+        for (ExpenseFilter.Sort sort : ExpenseFilter.Sort.values()) {
+            ExpensePage.Cursor cursor = sort.byDate() ? dateCursor : amountCursor;
+            // User-led, account-led and category-led WHERE clauses, with and without dates and amounts
+            check(failures, "user", filter(null, null, null, null, false, sort), null);
+            check(failures, "user+dates", filter(from, to, null, null, false, sort), null);
+            check(failures, "user+amounts", filter(null, null, null, null, true, sort), null);
+            check(failures, "user+dates+amounts", filter(from, to, null, null, true, sort), null);
+            check(failures, "user+dates+cursor", filter(from, to, null, null, false, sort), cursor);
+            check(failures, "user+dates+amounts+cursor", filter(from, to, null, null, true, sort), cursor);
+            check(failures, "account", filter(null, null, 1L, null, false, sort), null);
+            check(failures, "account+dates", filter(from, to, 1L, null, false, sort), null);
+            check(failures, "account+category+dates+cursor", filter(from, to, 1L, 2L, false, sort), cursor);
+            check(failures, "category", filter(null, null, null, 2L, false, sort), null);
+            check(failures, "category+dates", filter(from, to, null, 2L, false, sort), null);
+            check(failures, "category+dates+amounts+cursor", filter(from, to, null, 2L, true, sort), cursor);
+        }
+        assertTrue(failures.isEmpty(), "Filtered-list queries without an index range:\n" + String.join("\n", failures));
+    }
+
+    private static ExpenseFilter filter(LocalDate from, LocalDate to, Long accountId, Long categoryId, boolean amounts,
+                                        ExpenseFilter.Sort sort) {
+        ExpenseFilter f = new ExpenseFilter();
+        f.setUserId(1L);
+        f.setFrom(from);
+        f.setTo(to);
+        f.setAccountId(accountId);
+        f.setCategoryId(categoryId);
+        if (amounts) {
+            f.setMinAmount(BigDecimal.ONE);
+            f.setMaxAmount(BigDecimal.valueOf(300));
+        }
+        f.setSort(sort);
+        return f;
+    }
+
+    private static void check(List<String> failures, String shape, ExpenseFilter f, ExpensePage.Cursor after) {
+        for (Map<String, Object> row : repository.findFilteredPlan(f, after, 51)) {
+            Object type = row.get("type");
+            // ALL = table scan, index = full index scan; range/ref are what the composite indexes give
+            if ("ALL".equals(type) || "index".equals(type) || row.get("key") == null) {
+                failures.add(shape + " sort=" + f.getSort() + ": type=" + type + " key=" + row.get("key") + " extra=" + row.get("Extra"));
+            }
+        }
+    }
+}